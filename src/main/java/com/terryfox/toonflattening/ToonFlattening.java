@@ -4,18 +4,34 @@ import org.slf4j.Logger;
 
 import com.mojang.logging.LogUtils;
 import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.command.ToonFlatteningCommands;
+import com.terryfox.toonflattening.config.ConfigSnapshot;
+import com.terryfox.toonflattening.config.FeatureToggles;
 import com.terryfox.toonflattening.config.ToonFlatteningConfig;
 import com.terryfox.toonflattening.event.AnvilBreakHandler;
 import com.terryfox.toonflattening.event.AnvilStackHandler;
-import com.terryfox.toonflattening.event.FlatteningHandler;
+import com.terryfox.toonflattening.event.DamageRouter;
+import com.terryfox.toonflattening.event.FlattenTimerHandler;
 import com.terryfox.toonflattening.event.HammerAnvilHandler;
-import com.terryfox.toonflattening.event.HammerAttackHandler;
 import com.terryfox.toonflattening.event.KnockbackHandler;
 import com.terryfox.toonflattening.event.LoginHandler;
+import com.terryfox.toonflattening.event.MinecartFlatteningHandler;
 import com.terryfox.toonflattening.event.PlayerMovementHandler;
 import com.terryfox.toonflattening.event.RespawnHandler;
-import com.terryfox.toonflattening.event.SuffocationHandler;
+import com.terryfox.toonflattening.core.AnvilLandingQueue;
+import com.terryfox.toonflattening.core.FlattenTimers;
+import com.terryfox.toonflattening.core.FlattenedPlayerRegistry;
+import com.terryfox.toonflattening.core.FlattenedSectionIndex;
 import com.terryfox.toonflattening.core.FlatteningStateController;
+import com.terryfox.toonflattening.core.MinecartBroadphase;
+import com.terryfox.toonflattening.core.MinecartVerdictCache;
+import com.terryfox.toonflattening.core.PinnedAnvilIndex;
+import com.terryfox.toonflattening.integration.NativeScaleBackend;
+import com.terryfox.toonflattening.integration.ScaleBackend;
+import com.terryfox.toonflattening.integration.ScaleBackends;
+import com.terryfox.toonflattening.network.FlattenViewers;
+import com.terryfox.toonflattening.network.NetworkHandler;
+import com.terryfox.toonflattening.network.PendingFlattenSync;
 import com.terryfox.toonflattening.registry.ModItems;
 
 import net.minecraft.core.registries.BuiltInRegistries;
@@ -59,6 +75,51 @@ public class ToonFlattening {
                 .build()
         );
 
+    public static final Supplier<AttachmentType<FlattenedPlayerRegistry>> FLATTENED_PLAYERS =
+        ATTACHMENT_TYPES.register("flattened_players", () ->
+            AttachmentType.builder(FlattenedPlayerRegistry::new).build()
+        );
+
+    public static final Supplier<AttachmentType<FlattenViewers>> FLATTEN_VIEWERS =
+        ATTACHMENT_TYPES.register("flatten_viewers", () ->
+            AttachmentType.builder(FlattenViewers::new).build()
+        );
+
+    public static final Supplier<AttachmentType<PendingFlattenSync>> PENDING_FLATTEN_SYNC =
+        ATTACHMENT_TYPES.register("pending_flatten_sync", () ->
+            AttachmentType.builder(PendingFlattenSync::new).build()
+        );
+
+    public static final Supplier<AttachmentType<FlattenTimers>> FLATTEN_TIMERS =
+        ATTACHMENT_TYPES.register("flatten_timers", () ->
+            AttachmentType.builder(FlattenTimers::new).build()
+        );
+
+    public static final Supplier<AttachmentType<FlattenedSectionIndex>> FLATTENED_SECTIONS =
+        ATTACHMENT_TYPES.register("flattened_sections", () ->
+            AttachmentType.builder(FlattenedSectionIndex::new).build()
+        );
+
+    public static final Supplier<AttachmentType<PinnedAnvilIndex>> PINNED_ANVILS =
+        ATTACHMENT_TYPES.register("pinned_anvils", () ->
+            AttachmentType.builder(PinnedAnvilIndex::new).build()
+        );
+
+    public static final Supplier<AttachmentType<AnvilLandingQueue>> ANVIL_LANDINGS =
+        ATTACHMENT_TYPES.register("anvil_landings", () ->
+            AttachmentType.builder(AnvilLandingQueue::new).build()
+        );
+
+    public static final Supplier<AttachmentType<MinecartVerdictCache>> MINECART_VERDICTS =
+        ATTACHMENT_TYPES.register("minecart_verdicts", () ->
+            AttachmentType.builder(MinecartVerdictCache::new).build()
+        );
+
+    public static final Supplier<AttachmentType<MinecartBroadphase>> MINECART_BROADPHASE =
+        ATTACHMENT_TYPES.register("minecart_broadphase", () ->
+            AttachmentType.builder(MinecartBroadphase::new).build()
+        );
+
     public static final DeferredHolder<SoundEvent, SoundEvent> FLATTEN_SOUND =
         SOUND_EVENTS.register("flatten", () ->
             SoundEvent.createVariableRangeEvent(
@@ -74,24 +135,54 @@ public class ToonFlattening {
         modContainer.registerConfig(ModConfig.Type.SERVER, ToonFlatteningConfig.CONFIG_SPEC);
 
         modEventBus.addListener(this::commonSetup);
+        modEventBus.addListener(ConfigSnapshot::onConfigLoading);
+        modEventBus.addListener(ConfigSnapshot::onConfigReloading);
 
         NeoForge.EVENT_BUS.register(this);
-        NeoForge.EVENT_BUS.addListener(EventPriority.HIGH, FlatteningHandler::onLivingHurt);
-        NeoForge.EVENT_BUS.addListener(PlayerMovementHandler::onEntityTick);
+        NeoForge.EVENT_BUS.addListener(PlayerMovementHandler::onLevelTick);
+        NeoForge.EVENT_BUS.addListener(FlattenTimerHandler::onLevelTick);
+        NeoForge.EVENT_BUS.addListener(PlayerMovementHandler::onPlayerChangedDimension);
+        NeoForge.EVENT_BUS.addListener(PlayerMovementHandler::onPlayerLoggedOut);
         NeoForge.EVENT_BUS.addListener(RespawnHandler::onPlayerRespawn);
         NeoForge.EVENT_BUS.addListener(LoginHandler::onPlayerLogin);
-        NeoForge.EVENT_BUS.addListener(AnvilStackHandler::onEntityLeaveLevel);
         NeoForge.EVENT_BUS.addListener(KnockbackHandler::onLivingKnockBack);
-        NeoForge.EVENT_BUS.addListener(SuffocationHandler::onLivingIncomingDamage);
-        NeoForge.EVENT_BUS.addListener(AnvilBreakHandler::onBlockBreak);
-        NeoForge.EVENT_BUS.addListener(AnvilBreakHandler::onLeftClickBlock);
-        NeoForge.EVENT_BUS.addListener(HammerAttackHandler::onLivingIncomingDamage);
-        NeoForge.EVENT_BUS.addListener(HammerAnvilHandler::onAnvilUpdate);
+        NeoForge.EVENT_BUS.addListener(EventPriority.HIGH, DamageRouter::onLivingIncomingDamage);
+        NeoForge.EVENT_BUS.addListener(DamageRouter::onServerAboutToStart);
+        NeoForge.EVENT_BUS.addListener(ToonFlatteningCommands::register);
+        NeoForge.EVENT_BUS.addListener(NetworkHandler::onServerTick);
+        NeoForge.EVENT_BUS.addListener(NetworkHandler::onStartTracking);
+        NeoForge.EVENT_BUS.addListener(NetworkHandler::onStopTracking);
+
+        ScaleBackends.init();
+        NeoForge.EVENT_BUS.addListener(NativeScaleBackend::onEntitySize);
+
+        // Per-feature listeners; see FeatureToggles
+        if (FeatureToggles.ANVIL || FeatureToggles.PINNING) {
+            // Landings both spread stacked players and keep the pin index current
+            NeoForge.EVENT_BUS.addListener(AnvilStackHandler::onEntityLeaveLevel);
+            NeoForge.EVENT_BUS.addListener(AnvilStackHandler::onLevelTick);
+            NeoForge.EVENT_BUS.addListener(AnvilStackHandler::onTagsUpdated);
+        }
+        if (FeatureToggles.PINNING) {
+            NeoForge.EVENT_BUS.addListener(AnvilBreakHandler::onBlockBreak);
+            NeoForge.EVENT_BUS.addListener(AnvilBreakHandler::onLeftClickBlock);
+            NeoForge.EVENT_BUS.addListener(AnvilBreakHandler::onBlockPlace);
+            NeoForge.EVENT_BUS.addListener(AnvilBreakHandler::onChunkUnload);
+        }
+        if (FeatureToggles.HAMMER) {
+            NeoForge.EVENT_BUS.addListener(HammerAnvilHandler::onAnvilUpdate);
+        }
+        if (FeatureToggles.MINECART) {
+            NeoForge.EVENT_BUS.addListener(MinecartFlatteningHandler::onServerAboutToStart);
+            NeoForge.EVENT_BUS.addListener(MinecartFlatteningHandler::onLevelTick);
+            NeoForge.EVENT_BUS.addListener(MinecartFlatteningHandler::onEntityJoinLevel);
+            NeoForge.EVENT_BUS.addListener(MinecartFlatteningHandler::onEntityLeaveLevel);
+        }
     }
 
     private void commonSetup(FMLCommonSetupEvent event) {
         LOGGER.info("ToonFlattening initialized for Minecraft 1.21.1");
-        LOGGER.info("Pehkui integration ready");
+        LOGGER.info("Scale backend: {}", ScaleBackend.isNative() ? "native" : "Pehkui");
     }
 
     @SubscribeEvent
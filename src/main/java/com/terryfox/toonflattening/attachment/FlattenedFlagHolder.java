@@ -0,0 +1,12 @@
+package com.terryfox.toonflattening.attachment;
+
+/**
+ * Duck interface mixed into Entity so the flattened bit can be read as a plain field.
+ * The flag mirrors FlattenedStateAttachment.isFlattened() and is only written through
+ * FlattenedStateAttachment.setState().
+ */
+public interface FlattenedFlagHolder {
+    boolean toonflattening$isFlattened();
+
+    void toonflattening$setFlattened(boolean flattened);
+}
@@ -3,16 +3,18 @@ package com.terryfox.toonflattening.attachment;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.terryfox.toonflattening.ToonFlattening;
-import com.terryfox.toonflattening.network.SyncFlattenStatePayload;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.player.Player;
 
 import java.util.Optional;
 import java.util.function.Consumer;
 
-public record FlattenedStateAttachment(boolean isFlattened, long flattenTime, FrozenPoseData frozenPose, double accumulatedSpread, String flatteningSource) {
+/**
+ * @param animationTicks how long the squash into this state takes from flattenTime; used by the native scale backend's client animation
+ */
+public record FlattenedStateAttachment(boolean isFlattened, long flattenTime, FrozenPoseData frozenPose, double accumulatedSpread, String flatteningSource, int animationTicks) {
 
-    public static final FlattenedStateAttachment DEFAULT = new FlattenedStateAttachment(false, 0L, null, 0.0, "");
+    public static final FlattenedStateAttachment DEFAULT = new FlattenedStateAttachment(false, 0L, null, 0.0, "", 0);
 
     public static final Codec<FlattenedStateAttachment> CODEC = RecordCodecBuilder.create(instance ->
         instance.group(
@@ -21,40 +23,53 @@ public record FlattenedStateAttachment(boolean isFlattened, long flattenTime, Fr
             FrozenPoseData.CODEC.optionalFieldOf("frozenPose").forGetter(attachment ->
                 Optional.ofNullable(attachment.frozenPose())),
             Codec.DOUBLE.optionalFieldOf("accumulatedSpread", 0.0).forGetter(FlattenedStateAttachment::accumulatedSpread),
-            Codec.STRING.optionalFieldOf("flatteningSource", "").forGetter(FlattenedStateAttachment::flatteningSource)
-        ).apply(instance, (isFlattened, flattenTime, frozenPose, accumulatedSpread, flatteningSource) ->
-            new FlattenedStateAttachment(isFlattened, flattenTime, frozenPose.orElse(null), accumulatedSpread, flatteningSource))
+            Codec.STRING.optionalFieldOf("flatteningSource", "").forGetter(FlattenedStateAttachment::flatteningSource),
+            Codec.INT.optionalFieldOf("animationTicks", 0).forGetter(FlattenedStateAttachment::animationTicks)
+        ).apply(instance, (isFlattened, flattenTime, frozenPose, accumulatedSpread, flatteningSource, animationTicks) ->
+            new FlattenedStateAttachment(isFlattened, flattenTime, frozenPose.orElse(null), accumulatedSpread, flatteningSource, animationTicks))
     );
 
     public FlattenedStateAttachment withSpread(double newSpread) {
-        return new FlattenedStateAttachment(isFlattened, flattenTime, frozenPose, newSpread, flatteningSource);
+        return new FlattenedStateAttachment(isFlattened, flattenTime, frozenPose, newSpread, flatteningSource, animationTicks);
     }
 
-    public SyncFlattenStatePayload toSyncPayload(int playerId) {
-        return new SyncFlattenStatePayload(playerId, isFlattened, flattenTime, Optional.ofNullable(frozenPose), accumulatedSpread, flatteningSource);
+    public FlattenedStateAttachment withSpreadAndSource(double newSpread, String newSource) {
+        return new FlattenedStateAttachment(isFlattened, flattenTime, frozenPose, newSpread, newSource, animationTicks);
     }
 
-    public static boolean isFlattened(Player player) {
-        FlattenedStateAttachment state = player.getData(ToonFlattening.FLATTENED_STATE.get());
-        return state != null && state.isFlattened();
+    /**
+     * Reads the cached flattened flag. No attachment lookup, safe for any entity.
+     */
+    public static boolean isFlattened(Entity entity) {
+        return ((FlattenedFlagHolder) entity).toonflattening$isFlattened();
+    }
+
+    /**
+     * Stores the attachment and keeps the cached flattened flag in step with it.
+     * All writes to FLATTENED_STATE should go through here.
+     */
+    public static void setState(Player player, FlattenedStateAttachment state) {
+        player.setData(ToonFlattening.FLATTENED_STATE.get(), state);
+        ((FlattenedFlagHolder) player).toonflattening$setFlattened(state.isFlattened());
     }
 
     /**
-     * Executes action if entity is a flattened player.
-     * Common pattern: if (!(entity instanceof Player player)) return; if (isFlattened(player)) action();
+     * Executes action if the entity's cached flattened flag is set. Only setState sets it, so this
+     * means a flattened player.
+     * Common pattern: if (isFlattened(entity)) action();
      */
     public static void ifFlattened(Entity entity, Runnable action) {
-        if (entity instanceof Player player && isFlattened(player)) {
+        if (isFlattened(entity)) {
             action.run();
         }
     }
 
     /**
-     * Executes action if entity is a flattened player, passing the player.
-     * Common pattern: if (!(entity instanceof Player player)) return; if (isFlattened(player)) action(player);
+     * Executes action if the entity's cached flattened flag is set, passing the entity as a player.
+     * Common pattern: if (isFlattened(entity) && entity instanceof Player player) action(player);
      */
     public static void ifFlattened(Entity entity, Consumer<Player> action) {
-        if (entity instanceof Player player && isFlattened(player)) {
+        if (isFlattened(entity) && entity instanceof Player player) {
             action.accept(player);
         }
     }
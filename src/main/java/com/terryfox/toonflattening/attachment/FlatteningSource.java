@@ -0,0 +1,44 @@
+package com.terryfox.toonflattening.attachment;
+
+/**
+ * Known values of FlattenedStateAttachment.flatteningSource, with stable ids for the network codec.
+ * The attachment keeps the string form so saved data is unaffected.
+ */
+public enum FlatteningSource {
+    NONE(""),
+    ANVIL("ANVIL"),
+    HAMMER("HAMMER"),
+    MINECART("MINECART");
+
+    private static final FlatteningSource[] BY_ID = values();
+
+    private final String serializedName;
+
+    FlatteningSource(String serializedName) {
+        this.serializedName = serializedName;
+    }
+
+    public String serializedName() {
+        return serializedName;
+    }
+
+    public int id() {
+        return ordinal();
+    }
+
+    public static FlatteningSource byId(int id) {
+        return id >= 0 && id < BY_ID.length ? BY_ID[id] : NONE;
+    }
+
+    /**
+     * Unknown names map to NONE.
+     */
+    public static FlatteningSource byName(String name) {
+        for (FlatteningSource source : BY_ID) {
+            if (source.serializedName.equals(name)) {
+                return source;
+            }
+        }
+        return NONE;
+    }
+}
@@ -3,6 +3,9 @@ package com.terryfox.toonflattening.attachment;
 import com.mojang.serialization.Codec;
 import com.mojang.serialization.codecs.RecordCodecBuilder;
 import com.terryfox.toonflattening.mixin.accessor.WalkAnimationStateAccessor;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.util.Mth;
 import net.minecraft.world.entity.player.Player;
 
 /**
@@ -20,6 +23,69 @@ public record FrozenPoseData(
         ).apply(instance, FrozenPoseData::new)
     );
 
+    private static final int SWINGING = 1;
+    private static final int CROUCHING = 2;
+
+    /**
+     * Compact network form (12 bytes for typical values): rotations packed to a byte each like
+     * vanilla entity rotations, 0..1 animation amounts to a byte each. walkAnimPos stays a float
+     * since it is an unbounded phase rather than an angle.
+     */
+    public static final StreamCodec<FriendlyByteBuf, FrozenPoseData> STREAM_CODEC = StreamCodec.of(
+        FrozenPoseData::write,
+        FrozenPoseData::read
+    );
+
+    private static void write(FriendlyByteBuf buf, FrozenPoseData pose) {
+        RotationState rotation = pose.rotation();
+        buf.writeByte(Mth.packDegrees(rotation.yBodyRot()));
+        buf.writeByte(Mth.packDegrees(rotation.yHeadRot()));
+        buf.writeByte(Mth.packDegrees(rotation.xRot()));
+
+        AnimationState animation = pose.animation();
+        buf.writeFloat(animation.walkAnimPos());
+        buf.writeByte(packUnit(animation.walkAnimSpeed()));
+        buf.writeByte(packUnit(animation.attackAnim()));
+        buf.writeVarInt(animation.swingTime());
+        buf.writeByte(packUnit(animation.swimAmount()));
+        buf.writeByte((animation.swinging() ? SWINGING : 0) | (animation.crouching() ? CROUCHING : 0));
+    }
+
+    private static FrozenPoseData read(FriendlyByteBuf buf) {
+        RotationState rotation = new RotationState(
+            Mth.unpackDegrees(buf.readByte()),
+            Mth.unpackDegrees(buf.readByte()),
+            Mth.unpackDegrees(buf.readByte())
+        );
+
+        float walkAnimPos = buf.readFloat();
+        float walkAnimSpeed = unpackUnit(buf.readByte());
+        float attackAnim = unpackUnit(buf.readByte());
+        int swingTime = buf.readVarInt();
+        float swimAmount = unpackUnit(buf.readByte());
+        int flags = buf.readByte();
+
+        AnimationState animation = new AnimationState(
+            walkAnimPos,
+            walkAnimSpeed,
+            attackAnim,
+            swingTime,
+            (flags & SWINGING) != 0,
+            swimAmount,
+            (flags & CROUCHING) != 0
+        );
+
+        return new FrozenPoseData(rotation, animation);
+    }
+
+    private static int packUnit(float value) {
+        return Math.round(Mth.clamp(value, 0.0F, 1.0F) * 255.0F);
+    }
+
+    private static float unpackUnit(byte packed) {
+        return (packed & 0xFF) / 255.0F;
+    }
+
     /**
      * Captures the current pose state from a player.
      */
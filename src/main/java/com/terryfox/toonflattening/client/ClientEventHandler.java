@@ -2,17 +2,20 @@ package com.terryfox.toonflattening.client;
 
 import com.terryfox.toonflattening.ToonFlattening;
 import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
-import com.terryfox.toonflattening.network.RequestReformPayload;
+import com.terryfox.toonflattening.integration.ScaleBackends;
 import net.minecraft.client.Minecraft;
 import net.minecraft.client.player.LocalPlayer;
 import net.minecraft.client.player.Input;
 import net.neoforged.api.distmarker.Dist;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
+import net.minecraft.world.entity.player.Player;
+import net.neoforged.neoforge.client.event.ClientPlayerNetworkEvent;
 import net.neoforged.neoforge.client.event.ClientTickEvent;
 import net.neoforged.neoforge.client.event.MovementInputUpdateEvent;
 import net.neoforged.neoforge.client.event.RenderBlockScreenEffectEvent;
-import net.neoforged.neoforge.network.PacketDistributor;
+import net.neoforged.neoforge.event.entity.EntityJoinLevelEvent;
+import net.neoforged.neoforge.event.entity.EntityLeaveLevelEvent;
 
 @EventBusSubscriber(modid = ToonFlattening.MODID, value = Dist.CLIENT)
 public class ClientEventHandler {
@@ -47,11 +50,38 @@ public class ClientEventHandler {
         }
 
         while (KeyBindings.reformKey.consumeClick()) {
-            FlattenedStateAttachment state = player.getData(ToonFlattening.FLATTENED_STATE.get());
-            if (state.isFlattened()) {
-                PacketDistributor.sendToServer(new RequestReformPayload());
+            if (FlattenedStateAttachment.isFlattened(player)) {
+                ReformPrediction.requestReform(player);
             }
         }
+
+        ReformPrediction.tick(player);
+
+        PendingEntityUpdates.expire(player.level().getGameTime());
+    }
+
+    @SubscribeEvent
+    public static void onEntityJoinLevel(EntityJoinLevelEvent event) {
+        if (event.getLevel().isClientSide() && event.getEntity() instanceof Player player) {
+            PendingEntityUpdates.onPlayerJoin(player);
+        }
+    }
+
+    @SubscribeEvent
+    public static void onEntityLeaveLevel(EntityLeaveLevelEvent event) {
+        if (event.getLevel().isClientSide() && event.getEntity() instanceof Player player) {
+            NativeScaleAnimator.forget(player.getId());
+            FrozenPoseCache.forget(player.getId());
+        }
+    }
+
+    @SubscribeEvent
+    public static void onLoggingOut(ClientPlayerNetworkEvent.LoggingOut event) {
+        PendingEntityUpdates.clear();
+        ReformPrediction.clear();
+        NativeScaleAnimator.clear();
+        FrozenPoseCache.clear();
+        ScaleBackends.useLocalChoice();
     }
 
     @SubscribeEvent
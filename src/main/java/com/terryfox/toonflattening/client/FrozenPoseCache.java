@@ -0,0 +1,168 @@
+package com.terryfox.toonflattening.client;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.attachment.AnimationState;
+import com.terryfox.toonflattening.attachment.FrozenPoseData;
+import com.terryfox.toonflattening.attachment.RotationState;
+import com.terryfox.toonflattening.mixin.accessor.PlayerModelAccessor;
+import com.terryfox.toonflattening.network.FlattenStateEntry;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.model.HumanoidModel;
+import net.minecraft.client.model.PlayerModel;
+import net.minecraft.client.model.geom.PartPose;
+import net.minecraft.client.player.AbstractClientPlayer;
+import net.minecraft.client.renderer.entity.EntityRenderer;
+import net.minecraft.client.renderer.entity.player.PlayerRenderer;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.neoforged.api.distmarker.Dist;
+import net.neoforged.api.distmarker.OnlyIn;
+
+/**
+ * Model-part poses of flattened players, baked once from their FrozenPoseData and keyed by entity
+ * id. LivingEntityRendererMixin loads these instead of running setupAnim, so rendering a frozen
+ * player doesn't touch the live entity.
+ *
+ * Baked when a Full entry with a pose is applied; players whose state arrived some other way
+ * (buffered updates, reform prediction rollback) are baked on first render.
+ */
+@OnlyIn(Dist.CLIENT)
+public class FrozenPoseCache {
+    public static final class Baked {
+        private final float yBodyRot;
+        private final PartPose[] parts;
+
+        private Baked(float yBodyRot, PartPose[] parts) {
+            this.yBodyRot = yBodyRot;
+            this.parts = parts;
+        }
+
+        public float yBodyRot() {
+            return yBodyRot;
+        }
+
+        public void applyTo(PlayerModel<?> model) {
+            model.head.loadPose(parts[0]);
+            model.hat.loadPose(parts[1]);
+            model.body.loadPose(parts[2]);
+            model.rightArm.loadPose(parts[3]);
+            model.leftArm.loadPose(parts[4]);
+            model.rightLeg.loadPose(parts[5]);
+            model.leftLeg.loadPose(parts[6]);
+            model.jacket.loadPose(parts[7]);
+            model.rightSleeve.loadPose(parts[8]);
+            model.leftSleeve.loadPose(parts[9]);
+            model.rightPants.loadPose(parts[10]);
+            model.leftPants.loadPose(parts[11]);
+            ((PlayerModelAccessor) model).getCloak().loadPose(parts[12]);
+        }
+    }
+
+    private static final Int2ObjectOpenHashMap<Baked> BAKED = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * Keeps the cache in step with an entry just applied to a client-side player.
+     */
+    public static void onEntryApplied(FlattenStateEntry entry, Level level) {
+        if (entry instanceof FlattenStateEntry.Full full) {
+            if (full.frozenPose().isPresent() && level.getEntity(full.playerId()) instanceof AbstractClientPlayer player) {
+                bake(player, full.frozenPose().get());
+            } else {
+                BAKED.remove(full.playerId());
+            }
+        } else if (entry instanceof FlattenStateEntry.Reformed) {
+            BAKED.remove(entry.playerId());
+        }
+    }
+
+    /**
+     * @return the baked pose of a flattened player, baking it now if missing, or null if there is none
+     */
+    public static Baked get(Player player) {
+        Baked baked = BAKED.get(player.getId());
+        if (baked != null || !(player instanceof AbstractClientPlayer clientPlayer)) {
+            return baked;
+        }
+
+        FrozenPoseData pose = player.getData(ToonFlattening.FLATTENED_STATE.get()).frozenPose();
+        return pose == null ? null : bake(clientPlayer, pose);
+    }
+
+    public static void forget(int entityId) {
+        BAKED.remove(entityId);
+    }
+
+    public static void clear() {
+        BAKED.clear();
+    }
+
+    /**
+     * Runs the player model's setupAnim once with the frozen values and stores the resulting part poses.
+     * The model is shared and this can run mid-render (lazy bake), after the renderer has set up the
+     * model for the player being drawn, so the render properties it touches are put back afterwards.
+     * Part poses need no restoring: every render rewrites them.
+     */
+    private static Baked bake(AbstractClientPlayer player, FrozenPoseData pose) {
+        EntityRenderer<? super AbstractClientPlayer> renderer = Minecraft.getInstance().getEntityRenderDispatcher().getRenderer(player);
+        if (!(renderer instanceof PlayerRenderer playerRenderer)) {
+            return null;
+        }
+
+        PlayerModel<AbstractClientPlayer> model = playerRenderer.getModel();
+        RotationState rotation = pose.rotation();
+        AnimationState animation = pose.animation();
+
+        float attackTime = model.attackTime;
+        float swimAmount = model.swimAmount;
+        boolean crouching = model.crouching;
+        boolean riding = model.riding;
+        boolean young = model.young;
+        HumanoidModel.ArmPose leftArmPose = model.leftArmPose;
+        HumanoidModel.ArmPose rightArmPose = model.rightArmPose;
+
+        model.attackTime = animation.attackAnim();
+        model.swimAmount = animation.swimAmount();
+        model.crouching = animation.crouching();
+        model.riding = false;
+        model.young = false;
+        model.leftArmPose = HumanoidModel.ArmPose.EMPTY;
+        model.rightArmPose = HumanoidModel.ArmPose.EMPTY;
+        model.setupAnim(
+            player,
+            animation.walkAnimPos(),
+            animation.walkAnimSpeed(),
+            0.0f,
+            Mth.wrapDegrees(rotation.yHeadRot() - rotation.yBodyRot()),
+            rotation.xRot()
+        );
+
+        Baked baked = new Baked(rotation.yBodyRot(), new PartPose[] {
+            model.head.storePose(),
+            model.hat.storePose(),
+            model.body.storePose(),
+            model.rightArm.storePose(),
+            model.leftArm.storePose(),
+            model.rightLeg.storePose(),
+            model.leftLeg.storePose(),
+            model.jacket.storePose(),
+            model.rightSleeve.storePose(),
+            model.leftSleeve.storePose(),
+            model.rightPants.storePose(),
+            model.leftPants.storePose(),
+            ((PlayerModelAccessor) model).getCloak().storePose()
+        });
+
+        model.attackTime = attackTime;
+        model.swimAmount = swimAmount;
+        model.crouching = crouching;
+        model.riding = riding;
+        model.young = young;
+        model.leftArmPose = leftArmPose;
+        model.rightArmPose = rightArmPose;
+
+        BAKED.put(player.getId(), baked);
+        return baked;
+    }
+}
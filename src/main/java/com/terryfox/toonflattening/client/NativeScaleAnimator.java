@@ -0,0 +1,85 @@
+package com.terryfox.toonflattening.client;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.core.ScaleDimensions;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.player.Player;
+import net.neoforged.api.distmarker.Dist;
+import net.neoforged.api.distmarker.OnlyIn;
+
+/**
+ * Render-side squash animation for the native scale backend. Derives each player's visual scale
+ * from their synced flattened state: the first squash runs from flattenTime over animationTicks
+ * (so late joiners see it finished), later spread changes ease over SPREAD_ANIMATION_TICKS and
+ * reforms snap back, as Pehkui does. Render thread only.
+ */
+@OnlyIn(Dist.CLIENT)
+public class NativeScaleAnimator {
+    private static final int SPREAD_ANIMATION_TICKS = 5;
+
+    private static final class Animation {
+        private final float fromHeight;
+        private final float fromWidth;
+        private final ScaleDimensions target;
+        private final double start;
+        private final int duration;
+
+        private Animation(float fromHeight, float fromWidth, ScaleDimensions target, double start, int duration) {
+            this.fromHeight = fromHeight;
+            this.fromWidth = fromWidth;
+            this.target = target;
+            this.start = start;
+            this.duration = duration;
+        }
+
+        private ScaleDimensions sample(double now) {
+            double progress = duration <= 0 ? 1.0 : (now - start) / duration;
+            if (progress >= 1.0) {
+                return target;
+            }
+            float t = (float) Math.max(0.0, progress);
+            return new ScaleDimensions(Mth.lerp(t, fromHeight, target.height()), Mth.lerp(t, fromWidth, target.width()));
+        }
+    }
+
+    private static final Int2ObjectOpenHashMap<Animation> ANIMATIONS = new Int2ObjectOpenHashMap<>();
+
+    /**
+     * @return the scale to render the player at, or null to render unscaled
+     */
+    public static ScaleDimensions renderScale(Player player, float partialTick) {
+        boolean flattened = FlattenedStateAttachment.isFlattened(player);
+        Animation animation = ANIMATIONS.get(player.getId());
+        if (!flattened) {
+            if (animation != null) {
+                ANIMATIONS.remove(player.getId());
+            }
+            return null;
+        }
+
+        FlattenedStateAttachment state = player.getData(ToonFlattening.FLATTENED_STATE.get());
+        ScaleDimensions target = ScaleDimensions.fromConfig(state.accumulatedSpread());
+        double now = player.level().getGameTime() + partialTick;
+
+        if (animation == null) {
+            animation = new Animation(1.0f, 1.0f, target, state.flattenTime(), state.animationTicks());
+            ANIMATIONS.put(player.getId(), animation);
+        } else if (!animation.target.equals(target)) {
+            ScaleDimensions current = animation.sample(now);
+            animation = new Animation(current.height(), current.width(), target, now, SPREAD_ANIMATION_TICKS);
+            ANIMATIONS.put(player.getId(), animation);
+        }
+
+        return animation.sample(now);
+    }
+
+    public static void forget(int entityId) {
+        ANIMATIONS.remove(entityId);
+    }
+
+    public static void clear() {
+        ANIMATIONS.clear();
+    }
+}
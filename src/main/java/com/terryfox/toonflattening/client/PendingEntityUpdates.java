@@ -0,0 +1,64 @@
+package com.terryfox.toonflattening.client;
+
+import com.terryfox.toonflattening.network.FlattenStateEntry;
+import it.unimi.dsi.fastutil.ints.Int2LongOpenHashMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectMap;
+import it.unimi.dsi.fastutil.ints.Int2ObjectOpenHashMap;
+import net.minecraft.world.entity.player.Player;
+import net.neoforged.api.distmarker.Dist;
+import net.neoforged.api.distmarker.OnlyIn;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Flattened-state entries received for entity ids not yet present in the client level.
+ * Applied in arrival order when the entity joins, or dropped after EXPIRY_TICKS.
+ */
+@OnlyIn(Dist.CLIENT)
+public class PendingEntityUpdates {
+    private static final int EXPIRY_TICKS = 100;
+
+    private static final Int2ObjectMap<List<FlattenStateEntry>> PENDING = new Int2ObjectOpenHashMap<>();
+    private static final Int2LongOpenHashMap RECEIVED_AT = new Int2LongOpenHashMap();
+
+    public static void buffer(FlattenStateEntry entry, long gameTime) {
+        PENDING.computeIfAbsent(entry.playerId(), id -> new ArrayList<>()).add(entry);
+        RECEIVED_AT.put(entry.playerId(), gameTime);
+    }
+
+    public static void onPlayerJoin(Player player) {
+        if (PENDING.isEmpty()) {
+            return;
+        }
+
+        List<FlattenStateEntry> entries = PENDING.remove(player.getId());
+        if (entries == null) {
+            return;
+        }
+
+        RECEIVED_AT.remove(player.getId());
+        for (FlattenStateEntry entry : entries) {
+            entry.apply(player);
+        }
+    }
+
+    public static void expire(long gameTime) {
+        if (PENDING.isEmpty()) {
+            return;
+        }
+
+        RECEIVED_AT.int2LongEntrySet().removeIf(entry -> {
+            if (gameTime - entry.getLongValue() < EXPIRY_TICKS) {
+                return false;
+            }
+            PENDING.remove(entry.getIntKey());
+            return true;
+        });
+    }
+
+    public static void clear() {
+        PENDING.clear();
+        RECEIVED_AT.clear();
+    }
+}
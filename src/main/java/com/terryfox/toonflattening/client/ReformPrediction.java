@@ -0,0 +1,142 @@
+package com.terryfox.toonflattening.client;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.core.AnvilPinningHelper;
+import com.terryfox.toonflattening.core.ScaleDimensions;
+import com.terryfox.toonflattening.integration.ScaleBackend;
+import com.terryfox.toonflattening.network.FlattenStateEntry;
+import com.terryfox.toonflattening.network.RequestReformPayload;
+import com.terryfox.toonflattening.network.RequestResyncPayload;
+import com.terryfox.toonflattening.network.SyncFlattenBatchPayload;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.player.LocalPlayer;
+import net.neoforged.api.distmarker.Dist;
+import net.neoforged.api.distmarker.OnlyIn;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+/**
+ * Client-side prediction of the local player's reform.
+ *
+ * When the reform key is pressed and the client can see nothing stopping it (no pinning anvil,
+ * or the synced pin timeout has passed), the player is unflattened locally straight away and the
+ * request goes out with a sequence number. Otherwise no request is sent at all, since the server
+ * would refuse it. Until the server acknowledges that sequence, updates
+ * for the local player are applied to a shadow of the server's state instead; on ack (or timeout)
+ * the shadow becomes the live state, which either confirms the reform or rolls it back.
+ */
+@OnlyIn(Dist.CLIENT)
+public class ReformPrediction {
+    /**
+     * Ticks to wait for an ack before rolling back, in case the request or reply was lost.
+     */
+    private static final int ACK_TIMEOUT_TICKS = 60;
+
+    private static int lastSequence = SyncFlattenBatchPayload.NO_ACK;
+    private static int pendingSequence = SyncFlattenBatchPayload.NO_ACK;
+    private static long predictedAt;
+    private static FlattenedStateAttachment serverState;
+    private static long reformAllowedAt = Long.MIN_VALUE;
+
+    /**
+     * Records the pin timeout from a Full entry for the local player.
+     */
+    public static void onFull(FlattenStateEntry.Full entry) {
+        reformAllowedAt = entry.reformAllowedAt();
+    }
+
+    public static void requestReform(LocalPlayer player) {
+        if (pendingSequence != SyncFlattenBatchPayload.NO_ACK) {
+            return;
+        }
+
+        // Pinned and the pushed pin timeout hasn't passed: the server would refuse, so don't ask
+        if (!canReform(player)) {
+            return;
+        }
+
+        int sequence = ++lastSequence;
+        if (sequence == SyncFlattenBatchPayload.NO_ACK) {
+            sequence = ++lastSequence;
+        }
+
+        serverState = player.getData(ToonFlattening.FLATTENED_STATE.get());
+        pendingSequence = sequence;
+        predictedAt = player.level().getGameTime();
+
+        FlattenedStateAttachment.setState(player, FlattenedStateAttachment.DEFAULT);
+        ScaleBackend.get().resetScale(player);
+
+        PacketDistributor.sendToServer(new RequestReformPayload(sequence));
+    }
+
+    private static boolean canReform(LocalPlayer player) {
+        return player.level().getGameTime() >= reformAllowedAt
+            || !AnvilPinningHelper.isPlayerPinnedByAnvil(player);
+    }
+
+    /**
+     * Routes the local player's entries to the shadow state while a prediction is pending.
+     * @return true if the entry was consumed
+     */
+    public static boolean intercept(FlattenStateEntry entry) {
+        LocalPlayer player = Minecraft.getInstance().player;
+        if (player == null || entry.playerId() != player.getId()) {
+            return false;
+        }
+
+        if (entry instanceof FlattenStateEntry.Full full) {
+            onFull(full);
+        }
+
+        if (pendingSequence == SyncFlattenBatchPayload.NO_ACK) {
+            return false;
+        }
+
+        FlattenedStateAttachment updated = entry.applyTo(serverState);
+        if (updated == null) {
+            PacketDistributor.sendToServer(new RequestResyncPayload(entry.playerId()));
+        } else {
+            serverState = updated;
+        }
+        return true;
+    }
+
+    public static void onAck(int sequence) {
+        if (sequence == pendingSequence) {
+            reconcile();
+        }
+    }
+
+    public static void tick(LocalPlayer player) {
+        if (pendingSequence != SyncFlattenBatchPayload.NO_ACK
+                && player.level().getGameTime() - predictedAt > ACK_TIMEOUT_TICKS) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Makes the server's state live again: keeps the reform if the server agreed, undoes it otherwise.
+     */
+    private static void reconcile() {
+        LocalPlayer player = Minecraft.getInstance().player;
+        FlattenedStateAttachment state = serverState;
+        pendingSequence = SyncFlattenBatchPayload.NO_ACK;
+        serverState = null;
+
+        if (player == null) {
+            return;
+        }
+
+        FlattenedStateAttachment.setState(player, state);
+        if (state.isFlattened()) {
+            ScaleBackend.get().setScale(player, ScaleDimensions.fromConfig(state.accumulatedSpread()));
+        }
+    }
+
+    public static void clear() {
+        pendingSequence = SyncFlattenBatchPayload.NO_ACK;
+        serverState = null;
+        reformAllowedAt = Long.MIN_VALUE;
+    }
+}
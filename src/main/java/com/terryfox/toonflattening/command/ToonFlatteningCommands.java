@@ -0,0 +1,63 @@
+package com.terryfox.toonflattening.command;
+
+import com.mojang.brigadier.arguments.IntegerArgumentType;
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.trace.MinecartDecisionTrace;
+import net.minecraft.commands.CommandSourceStack;
+import net.minecraft.commands.Commands;
+import net.minecraft.network.chat.Component;
+import net.neoforged.neoforge.event.RegisterCommandsEvent;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+public class ToonFlatteningCommands {
+    public static void register(RegisterCommandsEvent event) {
+        event.getDispatcher().register(
+            Commands.literal(ToonFlattening.MODID)
+                .requires(source -> source.hasPermission(2))
+                .then(Commands.literal("trace")
+                    .then(Commands.literal("start")
+                        .executes(context -> startTrace(context.getSource(), MinecartDecisionTrace.DEFAULT_CAPACITY))
+                        .then(Commands.argument("capacity", IntegerArgumentType.integer(1, 1_000_000))
+                            .executes(context -> startTrace(
+                                context.getSource(),
+                                IntegerArgumentType.getInteger(context, "capacity")
+                            ))
+                        )
+                    )
+                    .then(Commands.literal("stop")
+                        .executes(context -> stopTrace(context.getSource()))
+                    )
+                    .then(Commands.literal("dump")
+                        .executes(context -> dumpTrace(context.getSource()))
+                    )
+                )
+        );
+    }
+
+    private static int startTrace(CommandSourceStack source, int capacity) {
+        MinecartDecisionTrace.start(capacity);
+        source.sendSuccess(() -> Component.literal("Minecart decision trace started (capacity " + capacity + ")"), true);
+        return 1;
+    }
+
+    private static int stopTrace(CommandSourceStack source) {
+        MinecartDecisionTrace.stop();
+        source.sendSuccess(() -> Component.literal("Minecart decision trace stopped ("
+            + MinecartDecisionTrace.size() + " decisions buffered)"), true);
+        return 1;
+    }
+
+    private static int dumpTrace(CommandSourceStack source) {
+        try {
+            Path file = MinecartDecisionTrace.dump();
+            source.sendSuccess(() -> Component.literal("Minecart decision trace written to " + file), true);
+            return 1;
+        } catch (IOException e) {
+            ToonFlattening.LOGGER.error("Failed to dump minecart decision trace", e);
+            source.sendFailure(Component.literal("Failed to dump minecart trace: " + e.getMessage()));
+            return 0;
+        }
+    }
+}
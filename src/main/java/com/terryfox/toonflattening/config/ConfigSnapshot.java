@@ -0,0 +1,152 @@
+package com.terryfox.toonflattening.config;
+
+import com.terryfox.toonflattening.core.ScaleDimensions;
+import net.neoforged.neoforge.common.ModConfigSpec;
+import net.neoforged.fml.event.config.ModConfigEvent;
+
+/**
+ * Immutable copy of the server config plus values derived from it, published through a single
+ * volatile reference. Rebuilt on config load/reload (including the copy synced to clients), so
+ * hot paths read plain fields instead of going through ModConfigSpec.
+ */
+public final class ConfigSnapshot {
+    private static final double PLAYER_HEIGHT = 1.8;
+    private static final double VELOCITY_THRESHOLD = 0.01;
+    private static final int MIN_ANIMATION_TICKS = 1;
+    private static final int MAX_ANIMATION_TICKS = 20;
+    private static final int DEFAULT_ANIMATION_TICKS = 10;
+    // Caps the interned table when spreadMultiplier is tiny
+    private static final int MAX_SCALE_STEPS = 4096;
+
+    private static volatile ConfigSnapshot current = capture(true);
+
+    public final double flattenDamage;
+    public final float heightScale;
+    public final boolean anvilPinningEnabled;
+    public final int anvilPinningTimeoutSeconds;
+    public final int autoReformSeconds;
+    public final double spreadMultiplier;
+    public final double maxSpreadWidth;
+    public final boolean frozenTickEnabled;
+    public final int cosmeticSyncRadius;
+
+    // animationTickThresholds[t - 1]: velocities above this flatten in at most t ticks
+    private final double[] animationTickThresholds;
+    // Spread only ever grows in half steps of spreadMultiplier (hammer crits add 1.5x)
+    private final double scaleStep;
+    private final ScaleDimensions[] scales;
+    private final ScaleDimensions maxScale;
+
+    private ConfigSnapshot(ToonFlatteningConfig config, boolean defaults) {
+        this.flattenDamage = read(config.flattenDamage, defaults);
+        this.heightScale = read(config.heightScale, defaults).floatValue();
+        this.anvilPinningEnabled = FeatureToggles.PINNING && read(config.anvilPinningEnabled, defaults);
+        this.anvilPinningTimeoutSeconds = read(config.anvilPinningTimeoutSeconds, defaults);
+        this.autoReformSeconds = read(config.autoReformSeconds, defaults);
+        this.spreadMultiplier = read(config.spreadMultiplier, defaults);
+        this.maxSpreadWidth = read(config.maxSpreadWidth, defaults);
+        this.frozenTickEnabled = read(config.frozenTickEnabled, defaults);
+        this.cosmeticSyncRadius = read(config.cosmeticSyncRadius, defaults);
+
+        double compression = PLAYER_HEIGHT - PLAYER_HEIGHT * read(config.heightScale, defaults);
+        this.animationTickThresholds = new double[MAX_ANIMATION_TICKS - 1];
+        for (int ticks = MIN_ANIMATION_TICKS; ticks < MAX_ANIMATION_TICKS; ticks++) {
+            // Math.round(compression / v) <= ticks exactly when compression / v < ticks + 0.5
+            animationTickThresholds[ticks - 1] = compression / (ticks + 0.5);
+        }
+
+        this.scaleStep = spreadMultiplier * 0.5;
+        int steps = scaleStep > 0
+            ? Math.min(MAX_SCALE_STEPS, (int) Math.ceil((maxSpreadWidth - 1.0) / scaleStep))
+            : 0;
+        this.scales = new ScaleDimensions[steps + 1];
+        for (int i = 0; i <= steps; i++) {
+            scales[i] = new ScaleDimensions(heightScale, (float) Math.min(1.0 + i * scaleStep, maxSpreadWidth));
+        }
+        this.maxScale = new ScaleDimensions(heightScale, (float) maxSpreadWidth);
+    }
+
+    public static ConfigSnapshot get() {
+        return current;
+    }
+
+    public static void onConfigLoading(ModConfigEvent.Loading event) {
+        if (event.getConfig().getSpec() == ToonFlatteningConfig.CONFIG_SPEC) {
+            current = capture(false);
+        }
+    }
+
+    public static void onConfigReloading(ModConfigEvent.Reloading event) {
+        if (event.getConfig().getSpec() == ToonFlatteningConfig.CONFIG_SPEC) {
+            current = capture(false);
+        }
+    }
+
+    /**
+     * Recaptures after values were changed in code (ConfigValue.set), which fires no reload event.
+     */
+    public static void refresh() {
+        current = capture(false);
+    }
+
+    /**
+     * Ticks the squash animation takes for an anvil falling at the given speed.
+     */
+    public int animationTicks(double anvilVelocityBlocksPerTick) {
+        if (anvilVelocityBlocksPerTick < VELOCITY_THRESHOLD) {
+            return DEFAULT_ANIMATION_TICKS;
+        }
+
+        for (int ticks = MIN_ANIMATION_TICKS; ticks < MAX_ANIMATION_TICKS; ticks++) {
+            if (anvilVelocityBlocksPerTick > animationTickThresholds[ticks - 1]) {
+                return ticks;
+            }
+        }
+        return MAX_ANIMATION_TICKS;
+    }
+
+    /**
+     * Scale for an accumulated spread. Spreads reachable under this config return a shared
+     * instance; anything else (e.g. spread accumulated under an older multiplier) is computed.
+     */
+    public ScaleDimensions scale(double accumulatedSpread) {
+        if (1.0 + accumulatedSpread >= maxSpreadWidth) {
+            return maxScale;
+        }
+
+        long step = spreadSteps(accumulatedSpread);
+        if (step >= 0 && step < scales.length) {
+            return scales[(int) step];
+        }
+
+        return new ScaleDimensions(heightScale, (float) Math.min(1.0 + accumulatedSpread, maxSpreadWidth));
+    }
+
+    /**
+     * Spread as a whole number of half steps of spreadMultiplier, the quantum every flatten adds
+     * in, or -1 if it isn't on one (e.g. spread accumulated under an older multiplier).
+     */
+    public long spreadSteps(double accumulatedSpread) {
+        if (scaleStep <= 0) {
+            return -1;
+        }
+
+        long step = Math.round(accumulatedSpread / scaleStep);
+        return step >= 0 && Math.abs(step * scaleStep - accumulatedSpread) < 1.0E-9 ? step : -1;
+    }
+
+    /**
+     * Inverse of spreadSteps; lands on the interned scales of scale().
+     */
+    public double spreadOfSteps(long steps) {
+        return steps * scaleStep;
+    }
+
+    private static ConfigSnapshot capture(boolean defaults) {
+        return new ConfigSnapshot(ToonFlatteningConfig.CONFIG, defaults);
+    }
+
+    private static <T> T read(ModConfigSpec.ConfigValue<T> value, boolean defaults) {
+        return defaults ? value.getDefault() : value.get();
+    }
+}
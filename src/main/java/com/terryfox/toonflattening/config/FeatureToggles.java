@@ -0,0 +1,74 @@
+package com.terryfox.toonflattening.config;
+
+import com.mojang.logging.LogUtils;
+import net.neoforged.fml.loading.FMLPaths;
+import org.slf4j.Logger;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Properties;
+
+/**
+ * Startup-only feature switches, read once from config/toonflattening-features.properties.
+ *
+ * Unlike ToonFlatteningConfig these are needed before mixins apply and before any world loads,
+ * so they live in a plain properties file. A disabled feature's mixins are skipped by
+ * ToonFlatteningMixinPlugin and its listeners are never registered; changes need a restart.
+ * Must not touch game classes, since the mixin plugin loads it very early.
+ */
+public final class FeatureToggles {
+    private static final Logger LOGGER = LogUtils.getLogger();
+    private static final String FILE_NAME = "toonflattening-features.properties";
+
+    public static final boolean ANVIL;
+    public static final boolean HAMMER;
+    public static final boolean MINECART;
+    public static final boolean PINNING;
+    // Resize through NeoForge's size event and client rendering instead of Pehkui
+    public static final boolean NATIVE_SCALING;
+
+    static {
+        Properties properties = load();
+        ANVIL = read(properties, "anvil");
+        HAMMER = read(properties, "hammer");
+        MINECART = read(properties, "minecart");
+        PINNING = read(properties, "pinning");
+        NATIVE_SCALING = "native".equalsIgnoreCase(properties.getProperty("scaleBackend", "pehkui").trim());
+    }
+
+    private FeatureToggles() {
+    }
+
+    private static Properties load() {
+        Path file = FMLPaths.CONFIGDIR.get().resolve(FILE_NAME);
+        Properties properties = new Properties();
+
+        if (Files.exists(file)) {
+            try (Reader reader = Files.newBufferedReader(file)) {
+                properties.load(reader);
+            } catch (IOException e) {
+                LOGGER.error("Failed to read {}, enabling all features", file, e);
+            }
+            return properties;
+        }
+
+        Properties defaults = new Properties();
+        for (String key : new String[] {"anvil", "hammer", "minecart", "pinning"}) {
+            defaults.setProperty(key, "true");
+        }
+        defaults.setProperty("scaleBackend", "pehkui");
+        try (Writer writer = Files.newBufferedWriter(file)) {
+            defaults.store(writer, "ToonFlattening features (read at startup, restart to apply)");
+        } catch (IOException e) {
+            LOGGER.warn("Failed to write default {}", file, e);
+        }
+        return defaults;
+    }
+
+    private static boolean read(Properties properties, String key) {
+        return !"false".equalsIgnoreCase(properties.getProperty(key, "true").trim());
+    }
+}
@@ -11,8 +11,11 @@ public class ToonFlatteningConfig {
     public final ModConfigSpec.DoubleValue heightScale;
     public final ModConfigSpec.BooleanValue anvilPinningEnabled;
     public final ModConfigSpec.IntValue anvilPinningTimeoutSeconds;
+    public final ModConfigSpec.IntValue autoReformSeconds;
     public final ModConfigSpec.DoubleValue spreadMultiplier;
     public final ModConfigSpec.DoubleValue maxSpreadWidth;
+    public final ModConfigSpec.BooleanValue frozenTickEnabled;
+    public final ModConfigSpec.IntValue cosmeticSyncRadius;
 
     private ToonFlatteningConfig(ModConfigSpec.Builder builder) {
         builder.comment("Toon Flattening Server Configuration")
@@ -33,9 +36,13 @@ public class ToonFlatteningConfig {
             .define("anvilPinningEnabled", true);
 
         anvilPinningTimeoutSeconds = builder
-            .comment("Time in seconds before pinned players can reform (0 = infinite, requires manual anvil removal)")
+            .comment("Time in seconds before pinned players can reform (0 = infinite, requires the anvil to be removed by a creative-mode player or command)")
             .defineInRange("anvilPinningTimeoutSeconds", 300, 0, 3600);
 
+        autoReformSeconds = builder
+            .comment("Time in seconds after which flattened players reform automatically, if not pinned (0 = never)")
+            .defineInRange("autoReformSeconds", 0, 0, 3600);
+
         spreadMultiplier = builder
             .comment("Base spread multiplier (default 0.8)")
             .translation("config.toonflattening.spread_multiplier")
@@ -46,6 +53,14 @@ public class ToonFlatteningConfig {
             .translation("config.toonflattening.max_spread_width")
             .defineInRange("maxSpreadWidth", 6.0, 2.0, 20.0);
 
+        frozenTickEnabled = builder
+            .comment("Skip movement physics, entity pushing, suffocation checks, item/XP pickup and fluid pushing for flattened players")
+            .define("frozenTickEnabled", true);
+
+        cosmeticSyncRadius = builder
+            .comment("Only send flattened state to tracking players within this many blocks (0 = whole entity tracking range)")
+            .defineInRange("cosmeticSyncRadius", 0, 0, 512);
+
         builder.pop();
     }
 
@@ -0,0 +1,32 @@
+package com.terryfox.toonflattening.core;
+
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+
+/**
+ * Per-level queue of positions where falling anvils came to rest this tick, drained once per
+ * level tick so stacking checks run as a single pass.
+ */
+public class AnvilLandingQueue {
+    private LongArrayList landings = new LongArrayList();
+    private LongArrayList draining = new LongArrayList();
+
+    public void add(long pos) {
+        landings.add(pos);
+    }
+
+    public boolean isEmpty() {
+        return landings.isEmpty();
+    }
+
+    /**
+     * Returns the queued positions in landing order and starts a new queue.
+     * The returned list is only valid until the next call.
+     */
+    public LongArrayList drain() {
+        LongArrayList drained = landings;
+        landings = draining;
+        landings.clear();
+        draining = drained;
+        return drained;
+    }
+}
@@ -1,7 +1,7 @@
 package com.terryfox.toonflattening.core;
 
 import net.minecraft.core.BlockPos;
-import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.player.Player;
 import net.minecraft.tags.BlockTags;
 
 public class AnvilPinningHelper {
@@ -11,7 +11,7 @@ public class AnvilPinningHelper {
      * @param player The player to check
      * @return true if an anvil block exists at the player's position or one block above
      */
-    public static boolean isPlayerPinnedByAnvil(ServerPlayer player) {
+    public static boolean isPlayerPinnedByAnvil(Player player) {
         BlockPos playerPos = player.blockPosition();
 
         // Check block at player position
@@ -0,0 +1,28 @@
+package com.terryfox.toonflattening.core;
+
+import net.minecraft.world.level.block.Block;
+import net.minecraft.world.level.block.state.BlockState;
+import net.minecraft.tags.BlockTags;
+
+/**
+ * Duck interface mixed into BlockStateBase caching whether the state is in the anvil tag, so
+ * hot paths that see every falling block can reject non-anvils with a field read.
+ */
+public interface AnvilStateFlag {
+    boolean toonflattening$isAnvil();
+
+    void toonflattening$setAnvil(boolean anvil);
+
+    static boolean isAnvil(BlockState state) {
+        return ((AnvilStateFlag) state).toonflattening$isAnvil();
+    }
+
+    /**
+     * Recomputes the flag for every block state. Call whenever tags are (re)loaded.
+     */
+    static void refresh() {
+        for (BlockState state : Block.BLOCK_STATE_REGISTRY) {
+            ((AnvilStateFlag) state).toonflattening$setAnvil(state.is(BlockTags.ANVIL));
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.terryfox.toonflattening.core;
+
+import it.unimi.dsi.fastutil.objects.Object2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ObjectArrayList;
+
+import java.util.UUID;
+
+/**
+ * Self-pruning cooldown store keyed by entity UUID, so a cooldown survives respawns (which create
+ * a new entity with a new id). A single-level timing wheel with one slot per tick of the cooldown
+ * span: a UUID is filed under the slot of its expiry tick and dropped when the wheel passes that
+ * slot, so memory stays bounded by the number of entities currently cooling down. Expiries are
+ * stored unboxed.
+ */
+public class CooldownWheel {
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final int span;
+    private final ObjectArrayList<UUID>[] slots;
+    private final Object2LongOpenHashMap<UUID> expiries = new Object2LongOpenHashMap<>();
+    private long lastAdvancedTick = NONE;
+
+    @SuppressWarnings("unchecked")
+    public CooldownWheel(int span) {
+        this.span = span;
+        this.slots = new ObjectArrayList[span];
+        for (int i = 0; i < span; i++) {
+            slots[i] = new ObjectArrayList<>();
+        }
+        expiries.defaultReturnValue(NONE);
+    }
+
+    public boolean isCoolingDown(UUID entityId, long gameTime) {
+        return expiries.getLong(entityId) > gameTime;
+    }
+
+    /**
+     * Starts (or restarts) the cooldown for the entity at the given game time.
+     */
+    public void start(UUID entityId, long gameTime) {
+        long expiry = gameTime + span;
+        expiries.put(entityId, expiry);
+        slots[slotOf(expiry)].add(entityId);
+    }
+
+    /**
+     * Moves the wheel to the given tick, dropping every cooldown that has expired on the way.
+     * Visits at most one full turn of slots, however long the gap since the last call.
+     */
+    public void advance(long gameTime) {
+        if (expiries.isEmpty() || lastAdvancedTick == NONE) {
+            lastAdvancedTick = gameTime;
+            return;
+        }
+
+        long from = Math.max(lastAdvancedTick + 1, gameTime - span + 1);
+        for (long tick = from; tick <= gameTime; tick++) {
+            ObjectArrayList<UUID> slot = slots[slotOf(tick)];
+            for (int i = 0; i < slot.size(); i++) {
+                UUID entityId = slot.get(i);
+                // A restarted cooldown keeps its later expiry and is filed under another slot
+                if (expiries.getLong(entityId) <= gameTime) {
+                    expiries.removeLong(entityId);
+                }
+            }
+            slot.clear();
+        }
+        lastAdvancedTick = gameTime;
+    }
+
+    public int size() {
+        return expiries.size();
+    }
+
+    private int slotOf(long tick) {
+        return (int) Math.floorMod(tick, (long) span);
+    }
+}
@@ -0,0 +1,91 @@
+package com.terryfox.toonflattening.core;
+
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Per-level schedule of flattened players' pin expiry and auto-reform deadlines, on a TimerWheel.
+ * Entries are (re)built from the persisted flattenTime whenever a player enters the flattened
+ * registry, so nothing needs saving and restarts recover on login.
+ */
+public class FlattenTimers {
+    public enum Kind {
+        PIN_EXPIRY,
+        AUTO_REFORM
+    }
+
+    private record Due(ServerPlayer player, Kind kind) {
+    }
+
+    private static final class PlayerTimers {
+        private TimerWheel.Timer<Due> pinExpiry;
+        private TimerWheel.Timer<Due> autoReform;
+    }
+
+    private final Reference2ObjectOpenHashMap<ServerPlayer, PlayerTimers> byPlayer = new Reference2ObjectOpenHashMap<>();
+    private TimerWheel<Due> wheel;
+
+    public boolean has(ServerPlayer player) {
+        return byPlayer.containsKey(player);
+    }
+
+    /**
+     * Schedules (or reschedules) the player's timer of the given kind.
+     */
+    public void schedule(ServerPlayer player, Kind kind, long deadline, long gameTime) {
+        if (wheel == null) {
+            wheel = new TimerWheel<>(gameTime);
+        }
+
+        PlayerTimers timers = byPlayer.computeIfAbsent(player, p -> new PlayerTimers());
+        TimerWheel.Timer<Due> timer = wheel.schedule(deadline, new Due(player, kind));
+        if (kind == Kind.PIN_EXPIRY) {
+            cancel(timers.pinExpiry);
+            timers.pinExpiry = timer;
+        } else {
+            cancel(timers.autoReform);
+            timers.autoReform = timer;
+        }
+    }
+
+    /**
+     * Marks the player as scheduled even when no timer applies, so the schedule isn't rebuilt on every update.
+     */
+    public void track(ServerPlayer player) {
+        byPlayer.computeIfAbsent(player, p -> new PlayerTimers());
+    }
+
+    public void cancelAll(ServerPlayer player) {
+        PlayerTimers timers = byPlayer.remove(player);
+        if (timers != null) {
+            cancel(timers.pinExpiry);
+            cancel(timers.autoReform);
+        }
+    }
+
+    public void advance(long gameTime, BiConsumer<ServerPlayer, Kind> onExpire) {
+        if (wheel == null) {
+            return;
+        }
+
+        wheel.advance(gameTime, due -> {
+            PlayerTimers timers = byPlayer.get(due.player());
+            if (timers != null) {
+                if (due.kind() == Kind.PIN_EXPIRY) {
+                    timers.pinExpiry = null;
+                } else {
+                    timers.autoReform = null;
+                }
+            }
+            onExpire.accept(due.player(), due.kind());
+        });
+    }
+
+    private void cancel(TimerWheel.Timer<Due> timer) {
+        if (timer != null) {
+            wheel.cancel(timer);
+        }
+    }
+}
@@ -0,0 +1,38 @@
+package com.terryfox.toonflattening.core;
+
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Iterator;
+
+/**
+ * Per-level set of the currently flattened players, so per-tick enforcement only visits them.
+ * Maintained by FlatteningStateController; entries are additionally validated on iteration,
+ * since a player can leave the level (respawn, disconnect) without passing through the controller.
+ */
+public class FlattenedPlayerRegistry {
+    private final ReferenceLinkedOpenHashSet<ServerPlayer> players = new ReferenceLinkedOpenHashSet<>();
+
+    public void add(ServerPlayer player) {
+        players.add(player);
+    }
+
+    public void remove(ServerPlayer player) {
+        players.remove(player);
+    }
+
+    public boolean isEmpty() {
+        return players.isEmpty();
+    }
+
+    public int size() {
+        return players.size();
+    }
+
+    /**
+     * Iterator supporting remove(), for dropping stale entries while enforcing.
+     */
+    public Iterator<ServerPlayer> iterator() {
+        return players.iterator();
+    }
+}
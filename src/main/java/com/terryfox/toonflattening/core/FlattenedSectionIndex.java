@@ -0,0 +1,88 @@
+package com.terryfox.toonflattening.core;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArraySet;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.phys.AABB;
+
+import java.util.Set;
+
+/**
+ * Per-level index of flattened players by the chunk section they stand in, kept beside
+ * FlattenedPlayerRegistry. Area lookups only visit sections that hold a flattened player and
+ * never touch vanilla's entity section storage; with nobody flattened they return immediately.
+ */
+public class FlattenedSectionIndex {
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final Long2ObjectOpenHashMap<Set<ServerPlayer>> sections = new Long2ObjectOpenHashMap<>();
+    private final Reference2LongOpenHashMap<ServerPlayer> sectionOf = new Reference2LongOpenHashMap<>();
+
+    public FlattenedSectionIndex() {
+        sectionOf.defaultReturnValue(NONE);
+    }
+
+    /**
+     * Adds the player, or moves them if they changed section since the last update.
+     */
+    public void update(ServerPlayer player) {
+        long section = SectionPos.asLong(player.blockPosition());
+        long previous = sectionOf.put(player, section);
+        if (previous == section) {
+            return;
+        }
+        if (previous != NONE) {
+            removeFrom(previous, player);
+        }
+        sections.computeIfAbsent(section, key -> new ReferenceArraySet<>(2)).add(player);
+    }
+
+    public void remove(ServerPlayer player) {
+        long section = sectionOf.removeLong(player);
+        if (section != NONE) {
+            removeFrom(section, player);
+        }
+    }
+
+    /**
+     * First indexed player whose bounding box intersects the box, or null.
+     */
+    public ServerPlayer findFirst(AABB box) {
+        if (sections.isEmpty()) {
+            return null;
+        }
+
+        int minX = SectionPos.posToSectionCoord(box.minX);
+        int minY = SectionPos.posToSectionCoord(box.minY);
+        int minZ = SectionPos.posToSectionCoord(box.minZ);
+        int maxX = SectionPos.posToSectionCoord(box.maxX);
+        int maxY = SectionPos.posToSectionCoord(box.maxY);
+        int maxZ = SectionPos.posToSectionCoord(box.maxZ);
+
+        for (int x = minX; x <= maxX; x++) {
+            for (int z = minZ; z <= maxZ; z++) {
+                for (int y = minY; y <= maxY; y++) {
+                    Set<ServerPlayer> players = sections.get(SectionPos.asLong(x, y, z));
+                    if (players == null) {
+                        continue;
+                    }
+                    for (ServerPlayer player : players) {
+                        if (player.getBoundingBox().intersects(box)) {
+                            return player;
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    private void removeFrom(long section, ServerPlayer player) {
+        Set<ServerPlayer> players = sections.get(section);
+        if (players != null && players.remove(player) && players.isEmpty()) {
+            sections.remove(section);
+        }
+    }
+}
@@ -3,40 +3,24 @@ package com.terryfox.toonflattening.core;
 import com.terryfox.toonflattening.ToonFlattening;
 import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
 import com.terryfox.toonflattening.attachment.FrozenPoseData;
-import com.terryfox.toonflattening.config.ToonFlatteningConfig;
-import com.terryfox.toonflattening.integration.PehkuiIntegration;
+import com.terryfox.toonflattening.config.ConfigSnapshot;
+import com.terryfox.toonflattening.integration.ScaleBackend;
 import com.terryfox.toonflattening.network.NetworkHandler;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.sounds.SoundSource;
 import net.minecraft.world.entity.player.Player;
 import net.minecraft.world.phys.Vec3;
 
 public class FlatteningStateController {
-    private static int calculateFlatteningAnimationTicks(double anvilVelocityBlocksPerTick) {
-        final double PLAYER_HEIGHT = 1.8;
-        final double HEIGHT_SCALE = ToonFlatteningConfig.CONFIG.heightScale.get();
-        final double COMPRESSION = PLAYER_HEIGHT - (PLAYER_HEIGHT * HEIGHT_SCALE);
-        final double VELOCITY_THRESHOLD = 0.01;
-        final int MIN_TICKS = 1;
-        final int MAX_TICKS = 20;
-        final int DEFAULT_TICKS = 10;
-
-        if (anvilVelocityBlocksPerTick < VELOCITY_THRESHOLD) {
-            return DEFAULT_TICKS;
-        }
-
-        double calculatedTicks = COMPRESSION / anvilVelocityBlocksPerTick;
-
-        return Math.max(MIN_TICKS, Math.min(MAX_TICKS, (int) Math.round(calculatedTicks)));
-    }
-
     public static void flatten(ServerPlayer player, double damage, double anvilVelocity) {
         if (!canFlatten(player)) {
             return;
         }
 
-        double spreadToAdd = ToonFlatteningConfig.CONFIG.spreadMultiplier.get();
-        int animationTicks = calculateFlatteningAnimationTicks(anvilVelocity);
+        ConfigSnapshot config = ConfigSnapshot.get();
+        double spreadToAdd = config.spreadMultiplier;
+        int animationTicks = config.animationTicks(anvilVelocity);
         applyFlatteningState(player, spreadToAdd, "ANVIL", animationTicks);
         applyDamageAndSound(player, damage);
     }
@@ -67,13 +51,15 @@ public class FlatteningStateController {
             sendSquashAnimation = true;
         }
 
-        FlattenedStateAttachment newState = new FlattenedStateAttachment(true, flattenTime, pose, accumulatedSpread, source);
+        FlattenedStateAttachment newState = new FlattenedStateAttachment(true, flattenTime, pose, accumulatedSpread, source,
+            sendSquashAnimation ? animationTicks : currentState.animationTicks());
 
-        player.setData(ToonFlattening.FLATTENED_STATE.get(), newState);
+        FlattenedStateAttachment.setState(player, newState);
+        updateRegistry(player);
         player.setDeltaMovement(Vec3.ZERO);
-        PehkuiIntegration.setPlayerScaleWithDelay(player, ScaleDimensions.fromConfig(accumulatedSpread), animationTicks);
+        ScaleBackend.get().setScaleWithDelay(player, ScaleDimensions.fromConfig(accumulatedSpread), animationTicks);
 
-        syncToClient(player);
+        syncToClient(player, sendSquashAnimation);
         if (sendSquashAnimation && !source.equals("MINECART")) {
             NetworkHandler.sendSquashAnimation(player);
         }
@@ -102,42 +88,108 @@ public class FlatteningStateController {
             return false;
         }
 
-        // Check if anvil pinning is enabled and player is pinned
-        if (ToonFlatteningConfig.CONFIG.anvilPinningEnabled.get() &&
-            AnvilPinningHelper.isPlayerPinnedByAnvil(player)) {
+        // An anvil pinning the player blocks reforming until the pin timeout passes
+        if (player.level().getGameTime() < reformAllowedAt(state) &&
+            player.serverLevel().getData(ToonFlattening.PINNED_ANVILS.get()).isPinned(player, player.level())) {
+            return false;
+        }
 
-            int timeoutSeconds = ToonFlatteningConfig.CONFIG.anvilPinningTimeoutSeconds.get();
+        resetPlayer(player);
+        ToonFlattening.LOGGER.info("Player {} reformed", player.getName().getString());
+        return true;
+    }
 
-            // If timeout is 0, infinite pinning - deny reform
-            if (timeoutSeconds == 0) {
-                return false;
-            }
+    /**
+     * Game time from which an anvil no longer stops the player reforming.
+     * Long.MIN_VALUE when pinning is disabled, Long.MAX_VALUE when pinning never times out.
+     */
+    public static long reformAllowedAt(FlattenedStateAttachment state) {
+        ConfigSnapshot config = ConfigSnapshot.get();
+        if (!config.anvilPinningEnabled) {
+            return Long.MIN_VALUE;
+        }
 
-            // Calculate elapsed time since flattening
-            long currentGameTime = player.level().getGameTime();
-            long elapsedSeconds = (currentGameTime - state.flattenTime()) / 20;
+        int timeoutSeconds = config.anvilPinningTimeoutSeconds;
 
-            // If timeout hasn't elapsed, deny reform
-            if (elapsedSeconds < timeoutSeconds) {
-                return false;
-            }
+        // If timeout is 0, infinite pinning - deny reform
+        if (timeoutSeconds == 0) {
+            return Long.MAX_VALUE;
         }
 
-        resetPlayer(player);
-        ToonFlattening.LOGGER.info("Player {} reformed", player.getName().getString());
-        return true;
+        return state.flattenTime() + timeoutSeconds * 20L;
     }
 
     public static void resetPlayer(ServerPlayer player) {
-        player.setData(
-            ToonFlattening.FLATTENED_STATE.get(),
-            FlattenedStateAttachment.DEFAULT
-        );
+        FlattenedStateAttachment.setState(player, FlattenedStateAttachment.DEFAULT);
+        updateRegistry(player);
 
-        PehkuiIntegration.resetPlayerScale(player);
+        ScaleBackend.get().resetScale(player);
         syncToClient(player);
     }
 
+    /**
+     * Adds or removes the player from their current level's flattened-player registry, section index,
+     * timer schedule and pinned-anvil index to match their state.
+     * Call after login and dimension changes; flatten and reset paths do this themselves.
+     */
+    public static void updateRegistry(ServerPlayer player) {
+        FlattenedPlayerRegistry registry = player.serverLevel().getData(ToonFlattening.FLATTENED_PLAYERS.get());
+        FlattenTimers timers = player.serverLevel().getData(ToonFlattening.FLATTEN_TIMERS.get());
+        FlattenedSectionIndex sections = player.serverLevel().getData(ToonFlattening.FLATTENED_SECTIONS.get());
+        PinnedAnvilIndex pins = player.serverLevel().getData(ToonFlattening.PINNED_ANVILS.get());
+        if (FlattenedStateAttachment.isFlattened(player)) {
+            registry.add(player);
+            sections.update(player);
+            if (!timers.has(player)) {
+                scheduleTimers(player, timers);
+            }
+            pins.track(player, player.level());
+        } else {
+            registry.remove(player);
+            sections.remove(player);
+            timers.cancelAll(player);
+            pins.untrack(player);
+        }
+    }
+
+    /**
+     * Schedules pin expiry and auto-reform from the player's flattenTime. Deadlines already
+     * in the past (e.g. after a restart) fire on the next tick.
+     */
+    private static void scheduleTimers(ServerPlayer player, FlattenTimers timers) {
+        FlattenedStateAttachment state = player.getData(ToonFlattening.FLATTENED_STATE.get());
+        long gameTime = player.level().getGameTime();
+        timers.track(player);
+
+        long reformAllowedAt = reformAllowedAt(state);
+        if (reformAllowedAt != Long.MIN_VALUE && reformAllowedAt != Long.MAX_VALUE) {
+            timers.schedule(player, FlattenTimers.Kind.PIN_EXPIRY, reformAllowedAt, gameTime);
+        }
+
+        int autoReformSeconds = ConfigSnapshot.get().autoReformSeconds;
+        if (autoReformSeconds > 0) {
+            timers.schedule(player, FlattenTimers.Kind.AUTO_REFORM, state.flattenTime() + autoReformSeconds * 20L, gameTime);
+        }
+    }
+
+    /**
+     * Removes the player from a level's registry, e.g. the level they just left.
+     */
+    public static void unregister(ServerPlayer player, ServerLevel level) {
+        if (level.hasData(ToonFlattening.FLATTENED_PLAYERS.get())) {
+            level.getData(ToonFlattening.FLATTENED_PLAYERS.get()).remove(player);
+        }
+        if (level.hasData(ToonFlattening.FLATTENED_SECTIONS.get())) {
+            level.getData(ToonFlattening.FLATTENED_SECTIONS.get()).remove(player);
+        }
+        if (level.hasData(ToonFlattening.FLATTEN_TIMERS.get())) {
+            level.getData(ToonFlattening.FLATTEN_TIMERS.get()).cancelAll(player);
+        }
+        if (level.hasData(ToonFlattening.PINNED_ANVILS.get())) {
+            level.getData(ToonFlattening.PINNED_ANVILS.get()).untrack(player);
+        }
+    }
+
     public static void silentSpread(ServerPlayer player) {
         FlattenedStateAttachment currentState = player.getData(ToonFlattening.FLATTENED_STATE.get());
 
@@ -147,29 +199,26 @@ public class FlatteningStateController {
         }
 
         // Calculate new accumulated spread
-        double spreadToAdd = ToonFlatteningConfig.CONFIG.spreadMultiplier.get();
+        ConfigSnapshot config = ConfigSnapshot.get();
+        double spreadToAdd = config.spreadMultiplier;
         double newAccumulatedSpread = currentState.accumulatedSpread() + spreadToAdd;
 
         // Check if max spread reached via config
-        ScaleDimensions proposedDimensions = ScaleDimensions.fromConfig(newAccumulatedSpread);
-        double maxSpreadWidth = ToonFlatteningConfig.CONFIG.maxSpreadWidth.get();
+        ScaleDimensions proposedDimensions = config.scale(newAccumulatedSpread);
 
-        if (proposedDimensions.width() >= maxSpreadWidth) {
+        if (proposedDimensions.width() >= config.maxSpreadWidth) {
             ToonFlattening.LOGGER.info("Player {} already at max spread (width: {})",
                 player.getName().getString(), proposedDimensions.width());
             return;
         }
 
         // Update attachment with new accumulated spread (preserve flattenTime, frozenPose, and source)
-        player.setData(
-            ToonFlattening.FLATTENED_STATE.get(),
-            currentState.withSpread(newAccumulatedSpread)
-        );
+        FlattenedStateAttachment.setState(player, currentState.withSpread(newAccumulatedSpread));
 
         // Apply new scale with delay
-        PehkuiIntegration.setPlayerScaleWithDelay(
+        ScaleBackend.get().setScaleWithDelay(
             player,
-            ScaleDimensions.fromConfig(newAccumulatedSpread),
+            proposedDimensions,
             5 // ~5 tick delay
         );
 
@@ -190,7 +239,8 @@ public class FlatteningStateController {
         }
 
         // Calculate spread to add (normal: +spreadMultiplier, crit: +spreadMultiplier×1.5)
-        double baseSpreadMultiplier = ToonFlatteningConfig.CONFIG.spreadMultiplier.get();
+        ConfigSnapshot config = ConfigSnapshot.get();
+        double baseSpreadMultiplier = config.spreadMultiplier;
         double spreadToAdd = isCriticalHit ? baseSpreadMultiplier * 1.5 : baseSpreadMultiplier;
 
         FlattenedStateAttachment currentState = player.getData(ToonFlattening.FLATTENED_STATE.get());
@@ -199,9 +249,7 @@ public class FlatteningStateController {
         if (currentState.isFlattened()) {
             double proposedSpread = currentState.accumulatedSpread() + spreadToAdd;
             double proposedWidth = 1.0 + proposedSpread;
-            double maxSpreadWidth = ToonFlatteningConfig.CONFIG.maxSpreadWidth.get();
-
-            if (proposedWidth >= maxSpreadWidth) {
+            if (proposedWidth >= config.maxSpreadWidth) {
                 return; // At max spread, do nothing
             }
         }
@@ -240,7 +288,7 @@ public class FlatteningStateController {
         FlattenedStateAttachment currentState = player.getData(ToonFlattening.FLATTENED_STATE.get());
         boolean wasAlreadyFlattened = currentState.isFlattened();
 
-        double spreadToAdd = ToonFlatteningConfig.CONFIG.spreadMultiplier.get();
+        double spreadToAdd = ConfigSnapshot.get().spreadMultiplier;
         applyFlatteningState(player, spreadToAdd, "MINECART", 3);
 
         // Sound only on first flatten
@@ -252,6 +300,13 @@ public class FlatteningStateController {
     }
 
     public static void syncToClient(ServerPlayer player) {
-        NetworkHandler.syncFlattenState(player);
+        syncToClient(player, false);
+    }
+
+    /**
+     * @param fullSync true on first flatten, when viewers have no state to apply a delta to
+     */
+    public static void syncToClient(ServerPlayer player, boolean fullSync) {
+        NetworkHandler.syncFlattenState(player, fullSync);
     }
 }
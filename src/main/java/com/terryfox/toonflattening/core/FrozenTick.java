@@ -0,0 +1,22 @@
+package com.terryfox.toonflattening.core;
+
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.config.ConfigSnapshot;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+
+/**
+ * Frozen-tick mode: a flattened server player is pinned in place, so the per-tick work that only
+ * matters for a moving entity (travel/collision, entity pushing, wall checks, pickup scans, fluid
+ * pushing) is skipped. Health regen, effects, hunger and damage intake still tick normally.
+ */
+public class FrozenTick {
+    /**
+     * Whether the frozen-tick shortcuts apply to this entity this tick.
+     */
+    public static boolean isFrozen(Entity entity) {
+        return entity instanceof ServerPlayer
+            && FlattenedStateAttachment.isFlattened(entity)
+            && ConfigSnapshot.get().frozenTickEnabled;
+    }
+}
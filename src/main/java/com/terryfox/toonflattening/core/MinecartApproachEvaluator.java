@@ -0,0 +1,159 @@
+package com.terryfox.toonflattening.core;
+
+/**
+ * Pure minecart-vs-player approach math, shared by MinecartFlatteningHandler and the offline
+ * trace replay tool. Deliberately free of Minecraft types so it can run without a server.
+ *
+ * Not thread-safe: the intermediate values of the last evaluation are kept on the instance.
+ */
+public final class MinecartApproachEvaluator {
+    /**
+     * Verdict bit: cart is approaching the player fast enough to bypass collision.
+     */
+    public static final byte APPROACHING = 1;
+
+    /**
+     * Verdict bit: relative velocity and direction allow a flatten on contact.
+     */
+    public static final byte IMPACT = 2;
+
+    /**
+     * Minimum relative velocity (blocks/tick) required for minecart to flatten.
+     */
+    public static final double VELOCITY_THRESHOLD = 0.1;
+
+    /**
+     * Distance (blocks) at which flattening triggers, center-to-center.
+     */
+    public static final double TRIGGER_RADIUS = 0.4;
+
+    /**
+     * Minimum dot product for player to be considered "in front" of cart.
+     * 0.5 = ~60° cone in front of cart's movement direction.
+     */
+    public static final double DIRECTION_THRESHOLD = 0.5;
+
+    /**
+     * Maximum player speed toward cart to allow flattening.
+     * If player is moving toward cart faster than this, they're initiating contact.
+     * Lower than sneaking speed (0.065) to catch all movement.
+     */
+    public static final double PLAYER_APPROACH_THRESHOLD = 0.03;
+
+    /**
+     * Minimum cart speed (blocks/tick) before a cart counts as moving at all.
+     */
+    private static final double MIN_CART_SPEED = 0.01;
+
+    /**
+     * Vec3.normalize() returns a zero vector below this length; mirrored here.
+     */
+    private static final double NORMALIZE_EPSILON = 1.0E-4;
+
+    public record Thresholds(double velocity, double direction, double triggerRadius) {
+        public static final Thresholds DEFAULT = new Thresholds(VELOCITY_THRESHOLD, DIRECTION_THRESHOLD, TRIGGER_RADIUS);
+    }
+
+    private final Thresholds thresholds;
+
+    private double dirDot;
+    private double relativeSpeed;
+    private double impactDot;
+
+    public MinecartApproachEvaluator(Thresholds thresholds) {
+        this.thresholds = thresholds;
+    }
+
+    public Thresholds thresholds() {
+        return thresholds;
+    }
+
+    /**
+     * Horizontal dot product between cart direction and cart→player of the last evaluation.
+     */
+    public double dirDot() {
+        return dirDot;
+    }
+
+    /**
+     * Cart speed minus the player's speed along the cart direction, from the last evaluation.
+     */
+    public double relativeSpeed() {
+        return relativeSpeed;
+    }
+
+    /**
+     * Dot product between the full 3D cart direction and cart→player, from the last evaluation.
+     */
+    public double impactDot() {
+        return impactDot;
+    }
+
+    /**
+     * Evaluates every velocity/direction check for one cart/player pair in a single pass.
+     * @return a combination of APPROACHING and IMPACT
+     */
+    public byte evaluate(double cartX, double cartZ, double velX, double velY, double velZ,
+                         double playerX, double playerZ, double playerVelX, double playerVelZ) {
+        double cartSpeed = Math.sqrt(velX * velX + velZ * velZ);
+
+        double toPlayerX = playerX - cartX;
+        double toPlayerZ = playerZ - cartZ;
+        double distToPlayer = Math.sqrt(toPlayerX * toPlayerX + toPlayerZ * toPlayerZ);
+
+        // Cart's horizontal direction (normalized)
+        double dirX = 0;
+        double dirZ = 0;
+        if (cartSpeed >= NORMALIZE_EPSILON) {
+            dirX = velX / cartSpeed;
+            dirZ = velZ / cartSpeed;
+        }
+
+        // Relative velocity: cart speed minus player's component along cart direction
+        double playerSpeedAlongCart = dirX * playerVelX + dirZ * playerVelZ;
+        relativeSpeed = cartSpeed - playerSpeedAlongCart;
+
+        // Horizontal direction from cart to player
+        dirDot = distToPlayer >= NORMALIZE_EPSILON ? (dirX * toPlayerX + dirZ * toPlayerZ) / distToPlayer : 0;
+
+        // Check player is in front of cart's movement (full 3D cart direction)
+        double velLength = Math.sqrt(velX * velX + velY * velY + velZ * velZ);
+        impactDot = velLength >= NORMALIZE_EPSILON && distToPlayer >= NORMALIZE_EPSILON
+            ? (velX * toPlayerX + velZ * toPlayerZ) / (velLength * distToPlayer)
+            : 0;
+
+        byte verdict = 0;
+
+        // Approaching: moving cart, player in front, fast enough relative to player
+        if (cartSpeed >= MIN_CART_SPEED && dirDot >= thresholds.direction() && relativeSpeed >= thresholds.velocity()) {
+            verdict |= APPROACHING;
+        }
+
+        // Check if player is pushing through cart (initiating contact)
+        // Only block if: velocities aligned (same direction) AND player moving toward cart position
+        // This prevents false blocking when cart rebounds and player has turned around
+        double velocityAlignment = playerVelX * velX + playerVelZ * velZ;
+        if (velocityAlignment > 0 && distToPlayer * distToPlayer > 0.0001) {
+            double playerSpeedTowardCart = -(toPlayerX * playerVelX + toPlayerZ * playerVelZ) / distToPlayer;
+            if (playerSpeedTowardCart > PLAYER_APPROACH_THRESHOLD) {
+                return verdict; // Player pushing through cart
+            }
+        }
+        // If velocities opposed or player moving away from cart, allow flatten
+
+        // Check relative velocity threshold
+        if (relativeSpeed < thresholds.velocity()) {
+            return verdict;
+        }
+
+        // At close range, direction vector is unreliable due to small distances
+        // Only reject if cart is clearly moving AWAY from player
+        // At distance, use stricter threshold to ensure cart is approaching
+        double minDot = distToPlayer <= thresholds.triggerRadius() ? 0 : thresholds.direction();
+        if (impactDot < minDot) {
+            return verdict; // Player not in front
+        }
+
+        return (byte) (verdict | IMPACT);
+    }
+}
@@ -0,0 +1,340 @@
+package com.terryfox.toonflattening.core;
+
+import com.terryfox.toonflattening.trace.MinecartDecisionTrace;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import it.unimi.dsi.fastutil.bytes.ByteArrayList;
+import it.unimi.dsi.fastutil.ints.IntArrayList;
+import it.unimi.dsi.fastutil.longs.Long2IntOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.vehicle.AbstractMinecart;
+import net.minecraft.world.phys.Vec3;
+
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Per-level minecart flattening broadphase, run once at the start of each level tick.
+ *
+ * Moving carts and eligible players are snapshotted into flat arrays, players are bucketed into a
+ * uniform horizontal grid, and each cart's motion for the tick is swept as a segment against the
+ * players in the cells it crosses. Verdicts go into the level's MinecartVerdictCache, which the
+ * collision/push mixins then only read. Sweeping the whole segment also catches fast carts that
+ * would otherwise tunnel past a player between two collision checks.
+ *
+ * Above PARALLEL_THRESHOLD carts the sweep is split into partitions: the server thread sweeps the
+ * first itself and a small dedicated pool sweeps the rest, so the tick never waits behind
+ * worldgen or IO work. Workers only read the snapshot; results are merged and applied on the
+ * server thread.
+ */
+public class MinecartBroadphase {
+    /**
+     * Verdict bit: the cart's swept path passes within TRIGGER_RADIUS of the player at flattening speed.
+     */
+    public static final byte CONTACT = 4;
+
+    /**
+     * Vertical distance within which a player can touch a cart.
+     */
+    private static final double VERTICAL_RANGE = 2.5;
+
+    /**
+     * Minimum horizontal cart speed (blocks/tick) for a cart to take part at all.
+     */
+    private static final double MOVING_SPEED = 0.01;
+
+    /**
+     * Moving cart count at which the sweep is split across worker threads.
+     */
+    private static final int PARALLEL_THRESHOLD = 64;
+
+    private static final int MAX_PARTITIONS = 8;
+
+    /**
+     * Broadphase worker threads; the server thread sweeps one partition itself. No workers (and a
+     * serial sweep) on machines with a single core.
+     */
+    private static final int WORKER_THREADS = Math.max(0, Math.min(MAX_PARTITIONS - 1, Runtime.getRuntime().availableProcessors() - 1));
+
+    /**
+     * Created on first use, shared by all levels (they tick one after another).
+     */
+    private static final class Workers {
+        private static final ExecutorService POOL = Executors.newFixedThreadPool(WORKER_THREADS,
+            new ThreadFactoryBuilder().setNameFormat("ToonFlattening Broadphase-%d").setDaemon(true).build());
+    }
+
+    private final ReferenceOpenHashSet<AbstractMinecart> trackedCarts = new ReferenceOpenHashSet<>();
+
+    // Cart snapshot
+    private AbstractMinecart[] carts = new AbstractMinecart[16];
+    private double[] cartData = new double[16 * 6];
+    private int cartCount;
+
+    // Player snapshot
+    private ServerPlayer[] players = new ServerPlayer[16];
+    private double[] playerData = new double[16 * 5];
+    private int playerCount;
+
+    // Grid: cell key -> first player index, chained through nextInCell
+    private final Long2IntOpenHashMap cellHeads = new Long2IntOpenHashMap();
+    private int[] nextInCell = new int[16];
+
+    private final Partition[] partitions = new Partition[MAX_PARTITIONS];
+
+    public MinecartBroadphase() {
+        cellHeads.defaultReturnValue(-1);
+        for (int i = 0; i < MAX_PARTITIONS; i++) {
+            partitions[i] = new Partition();
+        }
+    }
+
+    public void track(AbstractMinecart cart) {
+        trackedCarts.add(cart);
+    }
+
+    public void untrack(AbstractMinecart cart) {
+        trackedCarts.remove(cart);
+    }
+
+    public boolean hasCarts() {
+        return !trackedCarts.isEmpty();
+    }
+
+    /**
+     * Computes this tick's verdicts into the cache.
+     * @return the number of partitions holding results; read contacts with partition()
+     */
+    public int run(ServerLevel level, MinecartVerdictCache verdicts) {
+        snapshotCarts();
+        if (cartCount == 0) {
+            return 0;
+        }
+
+        snapshotPlayers(level);
+        if (playerCount == 0) {
+            return 0;
+        }
+
+        buildGrid();
+
+        long gameTime = level.getGameTime();
+        int partitionCount = 1;
+
+        // Tracing records in sweep order, so it always runs on the server thread
+        if (cartCount >= PARALLEL_THRESHOLD && WORKER_THREADS > 0 && !MinecartDecisionTrace.isEnabled()) {
+            partitionCount = Math.min(WORKER_THREADS + 1, (cartCount + PARALLEL_THRESHOLD - 1) / PARALLEL_THRESHOLD);
+            int perPartition = (cartCount + partitionCount - 1) / partitionCount;
+
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[partitionCount - 1];
+            for (int i = 1; i < partitionCount; i++) {
+                Partition partition = partitions[i];
+                int from = i * perPartition;
+                int to = Math.min(cartCount, from + perPartition);
+                futures[i - 1] = CompletableFuture.runAsync(() -> sweep(partition, from, to, gameTime), Workers.POOL);
+            }
+            sweep(partitions[0], 0, Math.min(cartCount, perPartition), gameTime);
+            CompletableFuture.allOf(futures).join();
+        } else {
+            sweep(partitions[0], 0, cartCount, gameTime);
+        }
+
+        for (int i = 0; i < partitionCount; i++) {
+            Partition partition = partitions[i];
+            for (int j = 0; j < partition.keys.size(); j++) {
+                verdicts.put(partition.keys.getLong(j), partition.verdicts.getByte(j));
+            }
+        }
+
+        return partitionCount;
+    }
+
+    public Partition partition(int index) {
+        return partitions[index];
+    }
+
+    /**
+     * Releases entity references held by the snapshot once the tick's results have been applied.
+     */
+    public void clearSnapshot() {
+        Arrays.fill(carts, 0, cartCount, null);
+        Arrays.fill(players, 0, playerCount, null);
+        cartCount = 0;
+        playerCount = 0;
+    }
+
+    private void snapshotCarts() {
+        cartCount = 0;
+        for (AbstractMinecart cart : trackedCarts) {
+            Vec3 velocity = cart.getDeltaMovement();
+            if (cart.isRemoved() || velocity.horizontalDistanceSqr() < MOVING_SPEED * MOVING_SPEED) {
+                continue;
+            }
+
+            if (cartCount == carts.length) {
+                carts = Arrays.copyOf(carts, cartCount * 2);
+                cartData = Arrays.copyOf(cartData, cartCount * 2 * 6);
+            }
+
+            int base = cartCount * 6;
+            carts[cartCount] = cart;
+            cartData[base] = cart.getX();
+            cartData[base + 1] = cart.getY();
+            cartData[base + 2] = cart.getZ();
+            cartData[base + 3] = velocity.x;
+            cartData[base + 4] = velocity.y;
+            cartData[base + 5] = velocity.z;
+            cartCount++;
+        }
+    }
+
+    private void snapshotPlayers(ServerLevel level) {
+        playerCount = 0;
+        for (ServerPlayer player : level.players()) {
+            // Spectators never collide and riders can't be run over
+            if (player.isSpectator() || player.isPassenger()) {
+                continue;
+            }
+
+            if (playerCount == players.length) {
+                players = Arrays.copyOf(players, playerCount * 2);
+                playerData = Arrays.copyOf(playerData, playerCount * 2 * 5);
+            }
+
+            Vec3 velocity = player.getDeltaMovement();
+            int base = playerCount * 5;
+            players[playerCount] = player;
+            playerData[base] = player.getX();
+            playerData[base + 1] = player.getY();
+            playerData[base + 2] = player.getZ();
+            playerData[base + 3] = velocity.x;
+            playerData[base + 4] = velocity.z;
+            playerCount++;
+        }
+    }
+
+    private void buildGrid() {
+        cellHeads.clear();
+        if (nextInCell.length < playerCount) {
+            nextInCell = new int[players.length];
+        }
+
+        for (int i = 0; i < playerCount; i++) {
+            long cell = MinecartSweep.cellKey(MinecartSweep.cellCoord(playerData[i * 5]), MinecartSweep.cellCoord(playerData[i * 5 + 2]));
+            nextInCell[i] = cellHeads.put(cell, i);
+        }
+    }
+
+    private void sweep(Partition partition, int fromCart, int toCart, long gameTime) {
+        partition.clear();
+        MinecartApproachEvaluator evaluator = partition.evaluator;
+
+        for (int c = fromCart; c < toCart; c++) {
+            int cartBase = c * 6;
+            double startX = cartData[cartBase];
+            double cartY = cartData[cartBase + 1];
+            double startZ = cartData[cartBase + 2];
+            double velX = cartData[cartBase + 3];
+            double velY = cartData[cartBase + 4];
+            double velZ = cartData[cartBase + 5];
+
+            int minCellX = MinecartSweep.cellCoord(Math.min(startX, startX + velX) - MinecartSweep.QUERY_MARGIN);
+            int maxCellX = MinecartSweep.cellCoord(Math.max(startX, startX + velX) + MinecartSweep.QUERY_MARGIN);
+            int minCellZ = MinecartSweep.cellCoord(Math.min(startZ, startZ + velZ) - MinecartSweep.QUERY_MARGIN);
+            int maxCellZ = MinecartSweep.cellCoord(Math.max(startZ, startZ + velZ) + MinecartSweep.QUERY_MARGIN);
+
+            for (int cellX = minCellX; cellX <= maxCellX; cellX++) {
+                for (int cellZ = minCellZ; cellZ <= maxCellZ; cellZ++) {
+                    for (int p = cellHeads.get(MinecartSweep.cellKey(cellX, cellZ)); p != -1; p = nextInCell[p]) {
+                        int playerBase = p * 5;
+                        double playerX = playerData[playerBase];
+                        double playerY = playerData[playerBase + 1];
+                        double playerZ = playerData[playerBase + 2];
+
+                        if (Math.abs(playerY - cartY) > VERTICAL_RANGE) {
+                            continue;
+                        }
+
+                        // Closest approach of the player to this tick's cart motion
+                        double distSqr = MinecartSweep.closestApproachSqr(startX, startZ, velX, velZ, playerX, playerZ);
+                        if (distSqr > MinecartSweep.QUERY_MARGIN * MinecartSweep.QUERY_MARGIN) {
+                            continue;
+                        }
+
+                        byte verdict = evaluator.evaluate(
+                            startX, startZ, velX, velY, velZ,
+                            playerX, playerZ, playerData[playerBase + 3], playerData[playerBase + 4]
+                        );
+
+                        // Traces record the evaluator's own verdict so MinecartTraceReplay can compare against
+                        // evaluate(); CONTACT depends on the fixed trigger radius, which replay doesn't model
+                        if (MinecartDecisionTrace.isEnabled()) {
+                            MinecartDecisionTrace.record(
+                                gameTime, carts[c].getId(), players[p].getId(),
+                                startX, startZ, velX, velY, velZ,
+                                playerX, playerZ, playerData[playerBase + 3], playerData[playerBase + 4],
+                                evaluator, verdict
+                            );
+                        }
+
+                        boolean contact = MinecartSweep.isContact(velX, velZ, distSqr);
+                        if (contact) {
+                            verdict |= CONTACT;
+                        }
+
+                        if (verdict != 0) {
+                            partition.keys.add(MinecartVerdictCache.key(carts[c].getId(), players[p].getId()));
+                            partition.verdicts.add(verdict);
+                        }
+                        if (contact) {
+                            partition.contactCarts.add(c);
+                            partition.contactPlayers.add(p);
+                            partition.contactVerdicts.add(verdict);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Results of one slice of the sweep. Only touched by one thread at a time.
+     */
+    public class Partition {
+        private final MinecartApproachEvaluator evaluator =
+            new MinecartApproachEvaluator(MinecartApproachEvaluator.Thresholds.DEFAULT);
+        private final LongArrayList keys = new LongArrayList();
+        private final ByteArrayList verdicts = new ByteArrayList();
+        private final IntArrayList contactCarts = new IntArrayList();
+        private final IntArrayList contactPlayers = new IntArrayList();
+        private final ByteArrayList contactVerdicts = new ByteArrayList();
+
+        public int contactCount() {
+            return contactCarts.size();
+        }
+
+        public AbstractMinecart contactCart(int index) {
+            return carts[contactCarts.getInt(index)];
+        }
+
+        public ServerPlayer contactPlayer(int index) {
+            return players[contactPlayers.getInt(index)];
+        }
+
+        public byte contactVerdict(int index) {
+            return contactVerdicts.getByte(index);
+        }
+
+        private void clear() {
+            keys.clear();
+            verdicts.clear();
+            contactCarts.clear();
+            contactPlayers.clear();
+            contactVerdicts.clear();
+        }
+    }
+}
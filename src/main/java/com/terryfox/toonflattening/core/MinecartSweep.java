@@ -0,0 +1,61 @@
+package com.terryfox.toonflattening.core;
+
+/**
+ * Swept-segment and grid math of MinecartBroadphase. Free of Minecraft types so it can be unit tested.
+ */
+public final class MinecartSweep {
+    /**
+     * Grid cell size (blocks).
+     */
+    public static final double CELL_SIZE = 4.0;
+
+    /**
+     * Horizontal distance from the swept segment within which pairs are evaluated.
+     * Covers cart/player bounding-box contact (~0.8 blocks) plus player movement.
+     */
+    public static final double QUERY_MARGIN = 2.0;
+
+    /**
+     * Minimum horizontal cart speed (blocks/tick) for a contact to flatten.
+     */
+    public static final double CONTACT_SPEED = 0.1;
+
+    private MinecartSweep() {
+    }
+
+    /**
+     * Squared horizontal distance from the player to the closest point of the cart's motion this
+     * tick, the segment from start to start + velocity. A cart fast enough to pass the player
+     * between two ticks still comes close along the segment, so it can't tunnel past.
+     */
+    public static double closestApproachSqr(double startX, double startZ, double velX, double velZ,
+                                            double playerX, double playerZ) {
+        double speedSqr = velX * velX + velZ * velZ;
+        double t = speedSqr > 0
+            ? Math.max(0, Math.min(1, ((playerX - startX) * velX + (playerZ - startZ) * velZ) / speedSqr))
+            : 0;
+        double dx = playerX - (startX + velX * t);
+        double dz = playerZ - (startZ + velZ * t);
+        return dx * dx + dz * dz;
+    }
+
+    /**
+     * Whether a cart moving at this velocity flattens a player at this closest approach: it passes
+     * within MinecartApproachEvaluator.TRIGGER_RADIUS at CONTACT_SPEED or faster.
+     */
+    public static boolean isContact(double velX, double velZ, double closestApproachSqr) {
+        double radius = MinecartApproachEvaluator.TRIGGER_RADIUS;
+        return velX * velX + velZ * velZ >= CONTACT_SPEED * CONTACT_SPEED && closestApproachSqr <= radius * radius;
+    }
+
+    /**
+     * Grid cell holding a coordinate; cells are [n * CELL_SIZE, (n + 1) * CELL_SIZE).
+     */
+    public static int cellCoord(double coordinate) {
+        return (int) Math.floor(coordinate / CELL_SIZE);
+    }
+
+    public static long cellKey(int cellX, int cellZ) {
+        return ((long) cellX << 32) | (cellZ & 0xFFFFFFFFL);
+    }
+}
@@ -0,0 +1,30 @@
+package com.terryfox.toonflattening.core;
+
+import it.unimi.dsi.fastutil.longs.Long2ByteOpenHashMap;
+
+/**
+ * Per-level, per-tick memo of minecart-vs-player approach verdicts.
+ * Keyed by the (cart id, player id) pair packed into a long; cleared at the start of every level tick
+ * and filled by MinecartBroadphase. Pairs the broadphase did not store have a verdict of 0.
+ */
+public class MinecartVerdictCache {
+    private final Long2ByteOpenHashMap verdicts = new Long2ByteOpenHashMap();
+
+    public static long key(int cartId, int playerId) {
+        return ((long) cartId << 32) | (playerId & 0xFFFFFFFFL);
+    }
+
+    public byte get(long key) {
+        return verdicts.get(key);
+    }
+
+    public void put(long key, byte verdict) {
+        verdicts.put(key, verdict);
+    }
+
+    public void clear() {
+        if (!verdicts.isEmpty()) {
+            verdicts.clear();
+        }
+    }
+}
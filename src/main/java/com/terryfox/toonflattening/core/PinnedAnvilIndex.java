@@ -0,0 +1,176 @@
+package com.terryfox.toonflattening.core;
+
+import it.unimi.dsi.fastutil.longs.Long2ObjectMap;
+import it.unimi.dsi.fastutil.longs.Long2ObjectOpenHashMap;
+import it.unimi.dsi.fastutil.objects.Reference2LongOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceArraySet;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.SectionPos;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.tags.BlockTags;
+import net.minecraft.world.level.ChunkPos;
+import net.minecraft.world.level.Level;
+
+import java.util.Set;
+
+/**
+ * Per-level index of the positions that can pin a flattened player (their block and the one
+ * above, see AnvilPinningHelper), keyed by packed BlockPos.
+ *
+ * Each watched position records which flattened players it covers and whether an anvil is
+ * there. The anvil flag is kept current on flatten, anvil landing/placement, anvil break and
+ * chunk unload, so break protection is a single map probe. Anvils removed some other way
+ * (explosions, commands) leave a stale flag, which tryReform clears with one validating lookup.
+ */
+public class PinnedAnvilIndex {
+    private static final long NONE = Long.MIN_VALUE;
+
+    private static final class Watch {
+        private final Set<ServerPlayer> players = new ReferenceArraySet<>(2);
+        private boolean anvil;
+    }
+
+    private final Long2ObjectOpenHashMap<Watch> watches = new Long2ObjectOpenHashMap<>();
+    private final Reference2LongOpenHashMap<ServerPlayer> anchors = new Reference2LongOpenHashMap<>();
+
+    public PinnedAnvilIndex() {
+        anchors.defaultReturnValue(NONE);
+    }
+
+    /**
+     * (Re)indexes a flattened player at their current block position.
+     */
+    public void track(ServerPlayer player, Level level) {
+        untrack(player);
+
+        BlockPos anchor = player.blockPosition();
+        anchors.put(player, anchor.asLong());
+        watch(player, anchor, level);
+        watch(player, anchor.above(), level);
+    }
+
+    public void untrack(ServerPlayer player) {
+        long anchor = anchors.removeLong(player);
+        if (anchor == NONE) {
+            return;
+        }
+        unwatch(player, anchor);
+        unwatch(player, BlockPos.offset(anchor, 0, 1, 0));
+    }
+
+    /**
+     * Whether a flattened player needs (re)tracking: they are indexed at a different position
+     * than where they are now, or not at all because their chunk was unloaded.
+     */
+    public boolean needsTrack(ServerPlayer player) {
+        return anchors.getLong(player) != player.blockPosition().asLong();
+    }
+
+    /**
+     * Whether an anvil at this position is pinning any flattened player.
+     */
+    public boolean isPinning(BlockPos pos) {
+        Watch watch = watches.get(pos.asLong());
+        return watch != null && watch.anvil;
+    }
+
+    /**
+     * Position of an anvil pinning the player according to the index, or null.
+     */
+    public BlockPos pinningAnvil(ServerPlayer player) {
+        long anchor = anchors.getLong(player);
+        if (anchor == NONE) {
+            return null;
+        }
+        if (hasAnvil(anchor)) {
+            return BlockPos.of(anchor);
+        }
+        long above = BlockPos.offset(anchor, 0, 1, 0);
+        return hasAnvil(above) ? BlockPos.of(above) : null;
+    }
+
+    /**
+     * Whether the player is pinned, confirming the indexed anvil is still there. Stale flags
+     * found on the way are cleared.
+     */
+    public boolean isPinned(ServerPlayer player, Level level) {
+        BlockPos pos = pinningAnvil(player);
+        while (pos != null) {
+            if (level.getBlockState(pos).is(BlockTags.ANVIL)) {
+                return true;
+            }
+            onAnvilRemoved(pos);
+            pos = pinningAnvil(player);
+        }
+        return false;
+    }
+
+    /**
+     * A flattened player this position pins (it is their block or the one above), or null.
+     */
+    public ServerPlayer firstPlayerAt(BlockPos pos) {
+        Watch watch = watches.get(pos.asLong());
+        return watch == null ? null : watch.players.iterator().next();
+    }
+
+    public void onAnvilPlaced(BlockPos pos) {
+        setAnvil(pos.asLong(), true);
+    }
+
+    public void onAnvilRemoved(BlockPos pos) {
+        setAnvil(pos.asLong(), false);
+    }
+
+    /**
+     * Forgets all watched positions in the chunk and the players they cover. Players that are
+     * still flattened in the level get tracked again (PlayerMovementHandler) once their chunk is
+     * loaded; the anvil flags can't be trusted across an unload, so they are re-read then.
+     */
+    public void onChunkUnload(ChunkPos chunk) {
+        if (watches.isEmpty()) {
+            return;
+        }
+
+        var iterator = watches.long2ObjectEntrySet().fastIterator();
+        while (iterator.hasNext()) {
+            Long2ObjectMap.Entry<Watch> entry = iterator.next();
+            long pos = entry.getLongKey();
+            if (SectionPos.blockToSectionCoord(BlockPos.getX(pos)) == chunk.x
+                    && SectionPos.blockToSectionCoord(BlockPos.getZ(pos)) == chunk.z) {
+                for (ServerPlayer player : entry.getValue().players) {
+                    anchors.removeLong(player);
+                }
+                iterator.remove();
+            }
+        }
+    }
+
+    private boolean hasAnvil(long pos) {
+        Watch watch = watches.get(pos);
+        return watch != null && watch.anvil;
+    }
+
+    private void setAnvil(long pos, boolean anvil) {
+        Watch watch = watches.get(pos);
+        if (watch != null) {
+            watch.anvil = anvil;
+        }
+    }
+
+    private void watch(ServerPlayer player, BlockPos pos, Level level) {
+        Watch watch = watches.get(pos.asLong());
+        if (watch == null) {
+            watch = new Watch();
+            watch.anvil = level.getBlockState(pos).is(BlockTags.ANVIL);
+            watches.put(pos.asLong(), watch);
+        }
+        watch.players.add(player);
+    }
+
+    private void unwatch(ServerPlayer player, long pos) {
+        Watch watch = watches.get(pos);
+        if (watch != null && watch.players.remove(player) && watch.players.isEmpty()) {
+            watches.remove(pos);
+        }
+    }
+}
@@ -1,17 +1,14 @@
 package com.terryfox.toonflattening.core;
 
-import com.terryfox.toonflattening.config.ToonFlatteningConfig;
+import com.terryfox.toonflattening.config.ConfigSnapshot;
 
 public record ScaleDimensions(float height, float width) {
     public static final ScaleDimensions NORMAL = new ScaleDimensions(1.0f, 1.0f);
 
+    /**
+     * Scale for an accumulated spread under the current config. Usually a shared instance.
+     */
     public static ScaleDimensions fromConfig(double accumulatedSpread) {
-        float height = ToonFlatteningConfig.CONFIG.heightScale.get().floatValue();
-        double maxSpreadWidth = ToonFlatteningConfig.CONFIG.maxSpreadWidth.get();
-
-        double calculatedWidth = 1.0 + accumulatedSpread;
-        float width = (float) Math.min(calculatedWidth, maxSpreadWidth);
-
-        return new ScaleDimensions(height, width);
+        return ConfigSnapshot.get().scale(accumulatedSpread);
     }
 }
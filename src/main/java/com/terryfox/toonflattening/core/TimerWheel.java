@@ -0,0 +1,177 @@
+package com.terryfox.toonflattening.core;
+
+import java.util.function.Consumer;
+
+/**
+ * Hierarchical timing wheel keyed by game tick.
+ *
+ * LEVELS wheels of SLOTS slots each; level L covers deadlines up to SLOTS^(L+1) ticks ahead, and
+ * its slots are cascaded down a level as the lower wheel wraps. Timers are kept in intrusive
+ * doubly-linked lists, so schedule and cancel are O(1) and a tick only touches the slots it passes.
+ * Deadlines beyond the top wheel wait in an overflow list that is re-filed once per top-wheel turn.
+ *
+ * Not thread-safe.
+ */
+public class TimerWheel<T> {
+    private static final int BITS = 6;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 3;
+    private static final long SPAN = 1L << (BITS * LEVELS);
+
+    /**
+     * Scheduled timer; pass to cancel() to remove it.
+     */
+    public static final class Timer<T> {
+        private final long deadline;
+        private final T payload;
+        private Timer<T> prev;
+        private Timer<T> next;
+        private Timer<T>[] bucket;
+        private int index = -1;
+
+        private Timer(long deadline, T payload) {
+            this.deadline = deadline;
+            this.payload = payload;
+        }
+
+        public long deadline() {
+            return deadline;
+        }
+
+        public T payload() {
+            return payload;
+        }
+
+        public boolean isScheduled() {
+            return index >= 0;
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private final Timer<T>[][] wheels = new Timer[LEVELS][SLOTS];
+    @SuppressWarnings("unchecked")
+    private final Timer<T>[] overflow = new Timer[1];
+
+    private long currentTick;
+    private int size;
+
+    public TimerWheel(long currentTick) {
+        this.currentTick = currentTick;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Schedules a timer; deadlines at or before the current tick fire on the next advance.
+     */
+    public Timer<T> schedule(long deadline, T payload) {
+        Timer<T> timer = new Timer<>(Math.max(deadline, currentTick + 1), payload);
+        file(timer);
+        size++;
+        return timer;
+    }
+
+    public void cancel(Timer<T> timer) {
+        if (timer.isScheduled()) {
+            unlink(timer);
+            size--;
+        }
+    }
+
+    /**
+     * Moves the wheel forward to gameTime, passing each expired timer's payload to onExpire in deadline order.
+     * Timers may be scheduled or cancelled from inside onExpire.
+     */
+    public void advance(long gameTime, Consumer<T> onExpire) {
+        if (size == 0) {
+            currentTick = Math.max(currentTick, gameTime);
+            return;
+        }
+
+        while (currentTick < gameTime) {
+            long tick = ++currentTick;
+
+            if ((tick & (SPAN - 1)) == 0) {
+                refile(overflow, 0);
+            }
+            for (int level = LEVELS - 1; level >= 1; level--) {
+                if ((tick & ((1L << (BITS * level)) - 1)) == 0) {
+                    Timer<T>[] wheel = wheels[level];
+                    refile(wheel, (int) (tick >>> (BITS * level)) & MASK);
+                }
+            }
+
+            Timer<T>[] wheel = wheels[0];
+            int slot = (int) tick & MASK;
+            // Re-read the head each time: onExpire may cancel other timers in this slot
+            Timer<T> timer;
+            while ((timer = wheel[slot]) != null) {
+                unlink(timer);
+                size--;
+                onExpire.accept(timer.payload);
+            }
+
+            if (size == 0) {
+                currentTick = gameTime;
+                return;
+            }
+        }
+    }
+
+    private void refile(Timer<T>[] bucket, int index) {
+        Timer<T> timer = bucket[index];
+        bucket[index] = null;
+        while (timer != null) {
+            Timer<T> next = timer.next;
+            timer.prev = null;
+            timer.next = null;
+            timer.index = -1;
+            file(timer);
+            timer = next;
+        }
+    }
+
+    private void file(Timer<T> timer) {
+        long delta = timer.deadline - currentTick;
+        if (delta >= SPAN) {
+            link(timer, overflow, 0);
+            return;
+        }
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (BITS * (level + 1)))) {
+            level++;
+        }
+        link(timer, wheels[level], (int) (timer.deadline >>> (BITS * level)) & MASK);
+    }
+
+    private void link(Timer<T> timer, Timer<T>[] bucket, int index) {
+        Timer<T> head = bucket[index];
+        timer.prev = null;
+        timer.next = head;
+        if (head != null) {
+            head.prev = timer;
+        }
+        bucket[index] = timer;
+        timer.bucket = bucket;
+        timer.index = index;
+    }
+
+    private void unlink(Timer<T> timer) {
+        if (timer.prev != null) {
+            timer.prev.next = timer.next;
+        } else {
+            timer.bucket[timer.index] = timer.next;
+        }
+        if (timer.next != null) {
+            timer.next.prev = timer.prev;
+        }
+        timer.prev = null;
+        timer.next = null;
+        timer.bucket = null;
+        timer.index = -1;
+    }
+}
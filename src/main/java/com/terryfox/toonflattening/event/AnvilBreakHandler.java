@@ -1,8 +1,11 @@
 package com.terryfox.toonflattening.event;
 
+import com.terryfox.toonflattening.ToonFlattening;
 import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
 import com.terryfox.toonflattening.core.AnvilPinningHelper;
+import com.terryfox.toonflattening.core.PinnedAnvilIndex;
 import net.minecraft.core.BlockPos;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.tags.BlockTags;
 import net.minecraft.world.entity.player.Player;
@@ -10,6 +13,7 @@ import net.minecraft.world.level.block.state.BlockState;
 import net.neoforged.neoforge.common.util.TriState;
 import net.neoforged.neoforge.event.entity.player.PlayerInteractEvent;
 import net.neoforged.neoforge.event.level.BlockEvent;
+import net.neoforged.neoforge.event.level.ChunkEvent;
 
 public class AnvilBreakHandler {
     public static void onBlockBreak(BlockEvent.BreakEvent event) {
@@ -18,24 +22,42 @@ public class AnvilBreakHandler {
 
         // Get player
         Player player = event.getPlayer();
-        if (!(player instanceof ServerPlayer)) return;
+        if (!(player instanceof ServerPlayer serverPlayer)) return;
+
+        // Protect the anvil while it pins any flattened player, not just the breaker
+        PinnedAnvilIndex pins = serverPlayer.serverLevel().getData(ToonFlattening.PINNED_ANVILS.get());
+        BlockPos anvilPos = event.getPos();
+        if (!pins.isPinning(anvilPos)) return;
 
         // Allow creative mode players to break anvils
-        if (player.isCreative()) return;
+        if (player.isCreative()) {
+            pins.onAnvilRemoved(anvilPos);
+            return;
+        }
 
-        // Check if anvil is pinning the breaking player
-        BlockPos anvilPos = event.getPos();
-        BlockPos playerPos = player.blockPosition();
-        boolean isPinningPlayer = AnvilPinningHelper.isAnvilPinningPosition(anvilPos, playerPos);
+        event.setCanceled(true);
+    }
 
-        // Check if player is flattened
-        if (FlattenedStateAttachment.isFlattened(player) && isPinningPlayer) {
-            event.setCanceled(true);
+    public static void onBlockPlace(BlockEvent.EntityPlaceEvent event) {
+        if (!isAnvilBlock(event.getPlacedBlock())) return;
+        if (!(event.getLevel() instanceof ServerLevel level)) return;
+
+        if (level.hasData(ToonFlattening.PINNED_ANVILS.get())) {
+            level.getData(ToonFlattening.PINNED_ANVILS.get()).onAnvilPlaced(event.getPos());
+        }
+    }
+
+    public static void onChunkUnload(ChunkEvent.Unload event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) return;
+
+        if (level.hasData(ToonFlattening.PINNED_ANVILS.get())) {
+            level.getData(ToonFlattening.PINNED_ANVILS.get()).onChunkUnload(event.getChunk().getPos());
         }
     }
 
     public static void onLeftClickBlock(PlayerInteractEvent.LeftClickBlock event) {
-        // Must run on client to prevent animation/sound
+        // Must run on client to prevent animation/sound. The client has no pinned-anvil index,
+        // so this only covers the local player; the server still protects everyone pinned.
         if (!event.getLevel().isClientSide()) return;
 
         // Only care about START action
@@ -1,27 +1,35 @@
 package com.terryfox.toonflattening.event;
 
 import com.terryfox.toonflattening.ToonFlattening;
-import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.config.FeatureToggles;
+import com.terryfox.toonflattening.core.AnvilLandingQueue;
+import com.terryfox.toonflattening.core.AnvilStateFlag;
 import com.terryfox.toonflattening.core.FlatteningStateController;
+import com.terryfox.toonflattening.core.PinnedAnvilIndex;
+import it.unimi.dsi.fastutil.longs.Long2LongOpenHashMap;
+import it.unimi.dsi.fastutil.longs.LongArrayList;
 import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
-import net.minecraft.tags.BlockTags;
 import net.minecraft.world.entity.item.FallingBlockEntity;
-import net.minecraft.world.level.Level;
 import net.minecraft.world.phys.AABB;
+import net.neoforged.neoforge.event.TagsUpdatedEvent;
 import net.neoforged.neoforge.event.entity.EntityLeaveLevelEvent;
-
-import java.util.List;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
 
 public class AnvilStackHandler {
+    // Deeper stacks are treated as ending here; taller ones don't add anything
+    private static final int MAX_STACK_DEPTH = 20;
+    private static final int MAX_FALL_SEARCH = 20;
 
     public static void onEntityLeaveLevel(EntityLeaveLevelEvent event) {
         if (!(event.getEntity() instanceof FallingBlockEntity fallingBlock)) {
             return;
         }
 
-        if (!fallingBlock.getBlockState().is(BlockTags.ANVIL)) {
+        // Fires for every sand/gravel block too, so reject with the cached per-state flag
+        if (!AnvilStateFlag.isAnvil(fallingBlock.getBlockState())) {
             return;
         }
 
@@ -29,58 +37,91 @@ public class AnvilStackHandler {
             return;
         }
 
-        BlockPos landingPos = fallingBlock.blockPosition();
+        level.getData(ToonFlattening.ANVIL_LANDINGS.get()).add(fallingBlock.blockPosition().asLong());
+    }
 
-        // Check if anvil block exists at landing position (confirms it landed successfully)
-        if (!level.getBlockState(landingPos).is(BlockTags.ANVIL)) {
+    /**
+     * Processes the tick's anvil landings in one pass: updates the pin index and spreads
+     * players pinned under stacks that grew.
+     */
+    public static void onLevelTick(LevelTickEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) {
             return;
         }
 
-        // Check if landed ON another anvil (stacking condition)
-        BlockPos belowPos = landingPos.below();
-        if (!level.getBlockState(belowPos).is(BlockTags.ANVIL)) {
+        if (!level.hasData(ToonFlattening.ANVIL_LANDINGS.get())) {
             return;
         }
 
-        // Find bottom of anvil stack
-        BlockPos bottomPos = findBottomOfAnvilStack(level, belowPos);
+        AnvilLandingQueue queue = level.getData(ToonFlattening.ANVIL_LANDINGS.get());
+        if (queue.isEmpty()) {
+            return;
+        }
 
-        // Find flattened player under stack
-        ServerPlayer flattenedPlayer = findFlattenedPlayerUnder(level, bottomPos);
+        LongArrayList landings = queue.drain();
+        PinnedAnvilIndex pins = level.getData(ToonFlattening.PINNED_ANVILS.get());
+        // Several anvils landing on the same stack in one tick share its bottom
+        Long2LongOpenHashMap bottoms = new Long2LongOpenHashMap();
+        BlockPos.MutableBlockPos cursor = new BlockPos.MutableBlockPos();
 
-        if (flattenedPlayer != null) {
-            FlatteningStateController.silentSpread(flattenedPlayer);
-        }
-    }
+        for (int i = 0; i < landings.size(); i++) {
+            long landing = landings.getLong(i);
 
-    private static BlockPos findBottomOfAnvilStack(Level level, BlockPos startPos) {
-        BlockPos current = startPos;
+            // Check if anvil block exists at landing position (confirms it landed successfully)
+            if (!AnvilStateFlag.isAnvil(level.getBlockState(cursor.set(landing)))) {
+                continue;
+            }
 
-        while (level.getBlockState(current.below()).is(BlockTags.ANVIL)) {
-            current = current.below();
-        }
+            // Landed anvils don't go through BlockEvent, so update the pin index here
+            pins.onAnvilPlaced(cursor);
+
+            // Stacking is part of the anvil feature; the pin index update above is all pinning needs
+            if (!FeatureToggles.ANVIL) {
+                continue;
+            }
 
-        return current;
+            // Check if landed ON another anvil (stacking condition)
+            long below = BlockPos.offset(landing, 0, -1, 0);
+            if (!AnvilStateFlag.isAnvil(level.getBlockState(cursor.set(below)))) {
+                continue;
+            }
+
+            long bottom = bottoms.computeIfAbsent(below, start -> findBottomOfAnvilStack(level, cursor.set(start)));
+
+            // Find flattened player under stack: pinned by the bottom anvil, else anywhere in the column below
+            ServerPlayer flattenedPlayer = pins.firstPlayerAt(cursor.set(bottom));
+            if (flattenedPlayer == null) {
+                flattenedPlayer = findFlattenedPlayerUnder(level, cursor);
+            }
+            if (flattenedPlayer != null) {
+                FlatteningStateController.silentSpread(flattenedPlayer);
+            }
+        }
     }
 
-    private static ServerPlayer findFlattenedPlayerUnder(Level level, BlockPos anvilPos) {
-        float raycastLength = 20;
+    public static void onTagsUpdated(TagsUpdatedEvent event) {
+        AnvilStateFlag.refresh();
+    }
 
-        // Search AABB along raycast path
+    private static ServerPlayer findFlattenedPlayerUnder(ServerLevel level, BlockPos anvilPos) {
         AABB searchBox = new AABB(
-            anvilPos.getX() - 1, anvilPos.getY() - raycastLength, anvilPos.getZ() - 1,
+            anvilPos.getX() - 1, anvilPos.getY() - MAX_FALL_SEARCH, anvilPos.getZ() - 1,
             anvilPos.getX() + 1, anvilPos.getY() + 1, anvilPos.getZ() + 1
         );
+        return level.getData(ToonFlattening.FLATTENED_SECTIONS.get()).findFirst(searchBox);
+    }
+
+    private static long findBottomOfAnvilStack(ServerLevel level, BlockPos.MutableBlockPos cursor) {
+        int minY = Math.max(level.getMinBuildHeight(), cursor.getY() - MAX_STACK_DEPTH);
 
-        List<ServerPlayer> players = level.getEntitiesOfClass(
-            ServerPlayer.class,
-            searchBox,
-            player -> {
-                FlattenedStateAttachment state = player.getData(ToonFlattening.FLATTENED_STATE.get());
-                return state.isFlattened();
+        while (cursor.getY() > minY) {
+            cursor.move(Direction.DOWN);
+            if (!AnvilStateFlag.isAnvil(level.getBlockState(cursor))) {
+                cursor.move(Direction.UP);
+                break;
             }
-        );
+        }
 
-        return players.isEmpty() ? null : players.get(0);
+        return cursor.asLong();
     }
 }
@@ -0,0 +1,72 @@
+package com.terryfox.toonflattening.event;
+
+import com.terryfox.toonflattening.config.FeatureToggles;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectOpenHashMap;
+import net.minecraft.core.Registry;
+import net.minecraft.core.registries.Registries;
+import net.minecraft.resources.ResourceKey;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.damagesource.DamageSource;
+import net.minecraft.world.damagesource.DamageType;
+import net.minecraft.world.damagesource.DamageTypes;
+import net.neoforged.neoforge.event.entity.living.LivingIncomingDamageEvent;
+import net.neoforged.neoforge.event.server.ServerAboutToStartEvent;
+
+import java.util.Map;
+
+/**
+ * Single LivingIncomingDamageEvent listener for all flattening damage handling. The damage type
+ * picks the handler through a table built once per server from the damage type registry, so
+ * unrelated damage (mob fights, falls, farms) costs one instanceof and one map lookup.
+ */
+public class DamageRouter {
+    private enum Route {
+        ANVIL,
+        HAMMER,
+        SUFFOCATION
+    }
+
+    private static volatile Map<DamageType, Route> routes = Map.of();
+
+    public static void onServerAboutToStart(ServerAboutToStartEvent event) {
+        Registry<DamageType> registry = event.getServer().registryAccess().registryOrThrow(Registries.DAMAGE_TYPE);
+        Reference2ObjectOpenHashMap<DamageType, Route> table = new Reference2ObjectOpenHashMap<>();
+
+        if (FeatureToggles.ANVIL) {
+            put(table, registry, DamageTypes.FALLING_ANVIL, Route.ANVIL);
+            // Modded anvils in the anvil tag that don't extend AnvilBlock fall with the generic type;
+            // onAnvilDamage checks the falling block's state, so other falling blocks pass through
+            put(table, registry, DamageTypes.FALLING_BLOCK, Route.ANVIL);
+        }
+        if (FeatureToggles.HAMMER) {
+            put(table, registry, DamageTypes.PLAYER_ATTACK, Route.HAMMER);
+        }
+        put(table, registry, DamageTypes.IN_WALL, Route.SUFFOCATION);
+        put(table, registry, DamageTypes.CRAMMING, Route.SUFFOCATION);
+
+        routes = table;
+    }
+
+    public static void onLivingIncomingDamage(LivingIncomingDamageEvent event) {
+        // Only players can be flattened, as victims and as targets of every route
+        if (!(event.getEntity() instanceof ServerPlayer victim)) {
+            return;
+        }
+
+        DamageSource source = event.getSource();
+        Route route = routes.get(source.type());
+        if (route == null) {
+            return;
+        }
+
+        switch (route) {
+            case ANVIL -> FlatteningHandler.onAnvilDamage(event, victim, source);
+            case HAMMER -> HammerAttackHandler.onHammerHit(event, victim, source);
+            case SUFFOCATION -> SuffocationHandler.onSuffocation(event, victim);
+        }
+    }
+
+    private static void put(Map<DamageType, Route> table, Registry<DamageType> registry, ResourceKey<DamageType> key, Route route) {
+        registry.getOptional(key).ifPresent(type -> table.put(type, route));
+    }
+}
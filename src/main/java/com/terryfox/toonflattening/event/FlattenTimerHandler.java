@@ -0,0 +1,52 @@
+package com.terryfox.toonflattening.event;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.core.FlattenTimers;
+import com.terryfox.toonflattening.core.FlatteningStateController;
+import net.minecraft.network.chat.Component;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
+
+public class FlattenTimerHandler {
+    /**
+     * Ticks between auto-reform retries while an anvil still pins the player.
+     */
+    private static final int AUTO_REFORM_RETRY_TICKS = 20;
+
+    public static void onLevelTick(LevelTickEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) {
+            return;
+        }
+
+        if (!level.hasData(ToonFlattening.FLATTEN_TIMERS.get())) {
+            return;
+        }
+
+        FlattenTimers timers = level.getData(ToonFlattening.FLATTEN_TIMERS.get());
+        timers.advance(level.getGameTime(), (player, kind) -> onExpire(level, timers, player, kind));
+    }
+
+    private static void onExpire(ServerLevel level, FlattenTimers timers, ServerPlayer player, FlattenTimers.Kind kind) {
+        if (player.isRemoved() || player.level() != level || !FlattenedStateAttachment.isFlattened(player)) {
+            timers.cancelAll(player);
+            return;
+        }
+
+        switch (kind) {
+            case PIN_EXPIRY -> {
+                if (level.getData(ToonFlattening.PINNED_ANVILS.get()).isPinned(player, level)) {
+                    player.displayClientMessage(Component.translatable("message.toonflattening.pin_expired"), true);
+                }
+            }
+            case AUTO_REFORM -> {
+                if (!FlatteningStateController.tryReform(player)) {
+                    // Still pinned; try again shortly
+                    long gameTime = level.getGameTime();
+                    timers.schedule(player, FlattenTimers.Kind.AUTO_REFORM, gameTime + AUTO_REFORM_RETRY_TICKS, gameTime);
+                }
+            }
+        }
+    }
+}
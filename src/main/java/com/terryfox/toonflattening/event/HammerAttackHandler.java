@@ -5,13 +5,17 @@ import com.terryfox.toonflattening.item.HammerItem;
 import net.minecraft.core.particles.ParticleTypes;
 import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.damagesource.DamageSource;
 import net.minecraft.world.effect.MobEffects;
 import net.neoforged.neoforge.event.entity.living.LivingIncomingDamageEvent;
 
 public class HammerAttackHandler {
-    public static void onLivingIncomingDamage(LivingIncomingDamageEvent event) {
+    /**
+     * Player melee damage on a player, routed by DamageRouter.
+     */
+    public static void onHammerHit(LivingIncomingDamageEvent event, ServerPlayer target, DamageSource source) {
         // Check attacker is ServerPlayer
-        if (!(event.getSource().getEntity() instanceof ServerPlayer attacker)) {
+        if (!(source.getEntity() instanceof ServerPlayer attacker)) {
             return;
         }
 
@@ -20,11 +24,6 @@ public class HammerAttackHandler {
             return;
         }
 
-        // Check target is ServerPlayer
-        if (!(event.getEntity() instanceof ServerPlayer target)) {
-            return;
-        }
-
         // Check PvP allowed
         if (!attacker.canHarmPlayer(target)) {
             return;
@@ -2,12 +2,16 @@ package com.terryfox.toonflattening.event;
 
 import com.terryfox.toonflattening.ToonFlattening;
 import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.core.FlatteningStateController;
 import com.terryfox.toonflattening.core.ScaleDimensions;
-import com.terryfox.toonflattening.integration.PehkuiIntegration;
+import com.terryfox.toonflattening.integration.ScaleBackend;
+import com.terryfox.toonflattening.integration.ScaleBackends;
 import com.terryfox.toonflattening.network.NetworkHandler;
+import com.terryfox.toonflattening.network.ScaleBackendPayload;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.network.PacketDistributor;
 
 public class LoginHandler {
     @SubscribeEvent
@@ -16,27 +20,32 @@ public class LoginHandler {
             return;
         }
 
+        // Before any state, so the client sizes and renders it with the server's backend
+        PacketDistributor.sendToPlayer(serverPlayer, new ScaleBackendPayload(ScaleBackends.isLocalChoiceNative()));
+
         // Read persisted flattened state
         FlattenedStateAttachment state = serverPlayer.getData(ToonFlattening.FLATTENED_STATE.get());
+        FlattenedStateAttachment.setState(serverPlayer, state);
+        FlatteningStateController.updateRegistry(serverPlayer);
 
         if (state.isFlattened()) {
             // Handle backwards compatibility: if accumulatedSpread is 0, treat as 1.0
             double accumulatedSpread = state.accumulatedSpread() == 0.0 ? 1.0 : state.accumulatedSpread();
 
             // Restore flattened scale
-            PehkuiIntegration.setPlayerScale(serverPlayer, ScaleDimensions.fromConfig(accumulatedSpread));
+            ScaleBackend.get().setScale(serverPlayer, ScaleDimensions.fromConfig(accumulatedSpread));
 
             ToonFlattening.LOGGER.debug("Restored flattened state for {} on login (accumulated spread: {})",
                 serverPlayer.getName().getString(), accumulatedSpread);
         } else {
             // Ensure scale is reset if not flattened
-            PehkuiIntegration.resetPlayerScale(serverPlayer);
+            ScaleBackend.get().resetScale(serverPlayer);
 
             ToonFlattening.LOGGER.debug("Synced non-flattened state for {} on login",
                 serverPlayer.getName().getString());
         }
 
         // Sync state to client
-        NetworkHandler.syncFlattenState(serverPlayer);
+        NetworkHandler.syncFlattenState(serverPlayer, true);
     }
 }
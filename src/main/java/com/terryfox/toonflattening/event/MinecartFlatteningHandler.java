@@ -1,16 +1,20 @@
 package com.terryfox.toonflattening.event;
 
 import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.core.CooldownWheel;
 import com.terryfox.toonflattening.core.FlatteningStateController;
+import com.terryfox.toonflattening.core.MinecartBroadphase;
+import com.terryfox.toonflattening.core.MinecartApproachEvaluator;
+import com.terryfox.toonflattening.core.MinecartVerdictCache;
 import net.minecraft.server.MinecraftServer;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.vehicle.AbstractMinecart;
 import net.minecraft.world.level.GameType;
-import net.minecraft.world.phys.Vec3;
-
-import java.util.HashMap;
-import java.util.Map;
-import java.util.UUID;
+import net.neoforged.neoforge.event.entity.EntityJoinLevelEvent;
+import net.neoforged.neoforge.event.entity.EntityLeaveLevelEvent;
+import net.neoforged.neoforge.event.server.ServerAboutToStartEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
 
 /**
  * This code relies on many confusing tricks and hacks to get decent minecart flattening working. I've
@@ -19,21 +23,11 @@ import java.util.UUID;
  * don't try to understand this code. I hope I don't have to touch it again.
  */
 public class MinecartFlatteningHandler {
-    /**
-     * Minimum relative velocity (blocks/tick) required for minecart to flatten.
-     */
-    private static final double VELOCITY_THRESHOLD = 0.1;
-
     /**
      * Distance (blocks) at which flattening triggers, center-to-center.
+     * Velocity and direction thresholds live in MinecartApproachEvaluator.
      */
-    public static final double TRIGGER_RADIUS = 0.4;
-
-    /**
-     * Minimum dot product for player to be considered "in front" of cart.
-     * 0.5 = ~60° cone in front of cart's movement direction.
-     */
-    private static final double DIRECTION_THRESHOLD = 0.5;
+    public static final double TRIGGER_RADIUS = MinecartApproachEvaluator.TRIGGER_RADIUS;
 
     /**
      * Maximum Y-level difference between cart and player for flattening.
@@ -47,120 +41,105 @@ public class MinecartFlatteningHandler {
     private static final int COOLDOWN_TICKS = 20;
 
     /**
-     * Maximum player speed toward cart to allow flattening.
-     * If player is moving toward cart faster than this, they're initiating contact.
-     * Lower than sneaking speed (0.065) to catch all movement.
+     * Enforces COOLDOWN_TICKS between minecart flattens. One per server, advanced with the overworld's
+     * game time (shared by all levels), so a cooldown follows the player across dimensions. Replaced
+     * on server start so an integrated server doesn't carry cooldowns into the next world. Server
+     * thread only.
      */
-    private static final double PLAYER_APPROACH_THRESHOLD = 0.03;
+    private static CooldownWheel cooldowns = new CooldownWheel(COOLDOWN_TICKS);
 
-    /**
-     * Tracks last flatten time per player to enforce cooldown.
-     */
-    private static final Map<UUID, Long> lastFlattenTime = new HashMap<>();
+    public static void onServerAboutToStart(ServerAboutToStartEvent event) {
+        cooldowns = new CooldownWheel(COOLDOWN_TICKS);
+    }
+
+    public static void onEntityJoinLevel(EntityJoinLevelEvent event) {
+        if (event.getEntity() instanceof AbstractMinecart cart && event.getLevel() instanceof ServerLevel level) {
+            level.getData(ToonFlattening.MINECART_BROADPHASE.get()).track(cart);
+        }
+    }
+
+    public static void onEntityLeaveLevel(EntityLeaveLevelEvent event) {
+        if (event.getEntity() instanceof AbstractMinecart cart
+                && event.getLevel() instanceof ServerLevel level
+                && level.hasData(ToonFlattening.MINECART_BROADPHASE.get())) {
+            level.getData(ToonFlattening.MINECART_BROADPHASE.get()).untrack(cart);
+        }
+    }
 
     /**
-     * Check if cart velocity meets threshold for flattening.
-     * @return true if cart should flatten/suppress collision
+     * Computes every cart/player verdict for the tick up front, before any entity moves, then
+     * flattens the players whose contact the broadphase found. The collision and push mixins
+     * only read the resulting cache.
      */
-    public static boolean meetsVelocityThreshold(AbstractMinecart cart, ServerPlayer player, Vec3 cartVelocity) {
-        double cartSpeed = cartVelocity.horizontalDistance();
-        if (cartSpeed < 0.01) {
-            ToonFlattening.LOGGER.info("[VELOCITY] FAIL: cartSpeed {} < 0.01", cartSpeed);
-            return false;  // Stationary cart
+    public static void onLevelTick(LevelTickEvent.Pre event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) {
+            return;
         }
 
-        // Check cart moving toward player
-        Vec3 toPlayer = new Vec3(player.getX() - cart.getX(), 0, player.getZ() - cart.getZ());
-        Vec3 cartDir = new Vec3(cartVelocity.x, 0, cartVelocity.z).normalize();
-        double dirDot = cartDir.dot(toPlayer.normalize());
-        if (dirDot < DIRECTION_THRESHOLD) {
-            ToonFlattening.LOGGER.info("[VELOCITY] FAIL: dirDot {} < {}", dirDot, DIRECTION_THRESHOLD);
-            return false;  // Not approaching
+        if (level == level.getServer().overworld()) {
+            cooldowns.advance(level.getGameTime());
         }
 
-        // Relative velocity: cart speed minus player's component along cart direction
-        Vec3 playerVel = player.getDeltaMovement();
-        double playerSpeedAlongCart = cartDir.dot(new Vec3(playerVel.x, 0, playerVel.z));
-        double relativeSpeed = cartSpeed - playerSpeedAlongCart;
-        if (relativeSpeed < VELOCITY_THRESHOLD) {
-            ToonFlattening.LOGGER.info("[VELOCITY] FAIL: relSpeed {} < {}", relativeSpeed, VELOCITY_THRESHOLD);
-            return false;
+        // Created when the first cart joins the level
+        if (!level.hasData(ToonFlattening.MINECART_BROADPHASE.get())) {
+            return;
         }
 
-        ToonFlattening.LOGGER.info("[VELOCITY] PASS: speed={} dir={} rel={}", cartSpeed, dirDot, relativeSpeed);
-        return true;
+        MinecartVerdictCache verdicts = level.getData(ToonFlattening.MINECART_VERDICTS.get());
+        verdicts.clear();
+
+        MinecartBroadphase broadphase = level.getData(ToonFlattening.MINECART_BROADPHASE.get());
+        if (!broadphase.hasCarts()) {
+            return;
+        }
+
+        int partitionCount = broadphase.run(level, verdicts);
+        for (int i = 0; i < partitionCount; i++) {
+            MinecartBroadphase.Partition partition = broadphase.partition(i);
+            for (int j = 0; j < partition.contactCount(); j++) {
+                tryFlatten(partition.contactCart(j), partition.contactPlayer(j), partition.contactVerdict(j));
+            }
+        }
+        broadphase.clearSnapshot();
+    }
+
+    /**
+     * Whether the player should stop blocking the cart's movement this tick: the cart is
+     * approaching fast, or has just run through the player and needs to exit.
+     */
+    public static boolean bypassesCollision(AbstractMinecart cart, ServerPlayer player) {
+        return (getVerdict(cart, player) & (MinecartApproachEvaluator.APPROACHING | MinecartBroadphase.CONTACT)) != 0;
+    }
+
+    /**
+     * Whether the cart and player should skip pushing each other this tick because the cart is approaching fast.
+     */
+    public static boolean bypassesPush(AbstractMinecart cart, ServerPlayer player) {
+        return (getVerdict(cart, player) & MinecartApproachEvaluator.APPROACHING) != 0;
+    }
+
+    private static byte getVerdict(AbstractMinecart cart, ServerPlayer player) {
+        MinecartVerdictCache cache = player.serverLevel().getData(ToonFlattening.MINECART_VERDICTS.get());
+        return cache.get(MinecartVerdictCache.key(cart.getId(), player.getId()));
     }
 
     /**
      * Attempt to flatten a player hit by a minecart.
      * Uses relative velocity - cart must be approaching player faster than threshold.
-     * @param cartVelocity The cart's velocity at the start of the tick (before collisions)
+     * @param verdict The pair's broadphase verdict, from the cart's velocity at the start of the tick
      */
-    public static boolean tryFlatten(AbstractMinecart cart, ServerPlayer victim, Vec3 cartVelocity) {
+    private static boolean tryFlatten(AbstractMinecart cart, ServerPlayer victim, byte verdict) {
         // Check cooldown
-        UUID playerUuid = victim.getUUID();
         long currentTime = victim.level().getGameTime();
-        Long lastTime = lastFlattenTime.get(playerUuid);
-        if (lastTime != null && (currentTime - lastTime) < COOLDOWN_TICKS) {
+        if (cooldowns.isCoolingDown(victim.getUUID(), currentTime)) {
             return false; // Still in cooldown
         }
 
-        // Check if player is pushing through cart (initiating contact)
-        // Only block if: velocities aligned (same direction) AND player moving toward cart position
-        // This prevents false blocking when cart rebounds and player has turned around
-        Vec3 playerVel = victim.getDeltaMovement();
-        Vec3 playerVelHoriz = new Vec3(playerVel.x, 0, playerVel.z);
-        Vec3 cartVelHoriz = new Vec3(cartVelocity.x, 0, cartVelocity.z);
-        double velocityAlignment = playerVelHoriz.dot(cartVelHoriz);
-
-        if (velocityAlignment > 0) {
-            // Velocities aligned (same direction) - might be pushing through
-            Vec3 toCart = new Vec3(
-                cart.getX() - victim.getX(),
-                0,
-                cart.getZ() - victim.getZ()
-            );
-            if (toCart.horizontalDistanceSqr() > 0.0001) {
-                double playerSpeedTowardCart = toCart.normalize().dot(playerVelHoriz);
-                if (playerSpeedTowardCart > PLAYER_APPROACH_THRESHOLD) {
-                    return false; // Player pushing through cart
-                }
-            }
-        }
-        // If velocities opposed or player moving away from cart, allow flatten
-
-        // Get cart's horizontal direction (normalized)
-        Vec3 cartDir = new Vec3(cartVelocity.x, 0, cartVelocity.z).normalize();
-        double cartSpeed = cartVelocity.horizontalDistance();
-
-        // Project player velocity onto cart direction
-        double playerSpeedAlongCart = cartDir.dot(new Vec3(playerVel.x, 0, playerVel.z));
-
-        // Relative velocity = how fast cart approaches player
-        double relativeSpeed = cartSpeed - playerSpeedAlongCart;
-
-        // Check relative velocity threshold
-        if (relativeSpeed < VELOCITY_THRESHOLD) {
+        // Push-through, relative velocity and direction checks share the per-tick verdict
+        if ((verdict & MinecartApproachEvaluator.IMPACT) == 0) {
             return false;
         }
 
-        // Check player is in front of cart's movement
-        Vec3 toPlayer = new Vec3(
-            victim.getX() - cart.getX(),
-            0,
-            victim.getZ() - cart.getZ()
-        );
-        double distToPlayer = toPlayer.horizontalDistance();
-        double dot = cartVelocity.normalize().dot(toPlayer.normalize());
-
-        // At close range, direction vector is unreliable due to small distances
-        // Only reject if cart is clearly moving AWAY from player
-        // At distance, use stricter threshold to ensure cart is approaching
-        double minDot = distToPlayer <= TRIGGER_RADIUS ? 0 : DIRECTION_THRESHOLD;
-        if (dot < minDot) {
-            return false; // Player not in front
-        }
-
         // Player must be grounded
         double railY = cart.blockPosition().getY();
         double playerY = victim.getY();
@@ -188,7 +167,7 @@ public class MinecartFlatteningHandler {
         FlatteningStateController.flattenWithMinecart(victim);
 
         // Update cooldown
-        lastFlattenTime.put(playerUuid, currentTime);
+        cooldowns.start(victim.getUUID(), currentTime);
 
         return true;
     }
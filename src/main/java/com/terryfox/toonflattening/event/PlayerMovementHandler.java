@@ -1,39 +1,98 @@
 package com.terryfox.toonflattening.event;
 
+import com.terryfox.toonflattening.ToonFlattening;
 import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.core.FlattenedPlayerRegistry;
+import com.terryfox.toonflattening.core.FlattenedSectionIndex;
+import com.terryfox.toonflattening.core.FlatteningStateController;
+import com.terryfox.toonflattening.core.PinnedAnvilIndex;
+import net.minecraft.server.level.ServerLevel;
+import net.minecraft.server.level.ServerPlayer;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.tick.LevelTickEvent;
 
-import net.minecraft.world.entity.player.Player;
-import net.neoforged.neoforge.event.tick.EntityTickEvent;
+import java.util.Iterator;
 
 public class PlayerMovementHandler {
 
-    public static void onEntityTick(EntityTickEvent.Post event) {
-        if (!(event.getEntity() instanceof Player player)) {
+    /**
+     * Enforces flattened movement restrictions once per level tick, visiting only the level's flattened players.
+     */
+    public static void onLevelTick(LevelTickEvent.Post event) {
+        if (!(event.getLevel() instanceof ServerLevel level)) {
             return;
         }
 
-        if (player.level().isClientSide()) {
+        if (!level.hasData(ToonFlattening.FLATTENED_PLAYERS.get())) {
             return;
         }
 
-        if (player.isSpectator()) {
+        FlattenedPlayerRegistry registry = level.getData(ToonFlattening.FLATTENED_PLAYERS.get());
+        if (registry.isEmpty()) {
             return;
         }
 
-        if (!FlattenedStateAttachment.isFlattened(player)) {
+        FlattenedSectionIndex sections = level.getData(ToonFlattening.FLATTENED_SECTIONS.get());
+        PinnedAnvilIndex pins = level.getData(ToonFlattening.PINNED_ANVILS.get());
+        Iterator<ServerPlayer> iterator = registry.iterator();
+        while (iterator.hasNext()) {
+            ServerPlayer player = iterator.next();
+
+            // Respawned (old instance) or moved away without going through the controller
+            if (player.isRemoved() || player.level() != level || !FlattenedStateAttachment.isFlattened(player)) {
+                iterator.remove();
+                sections.remove(player);
+                if (level.hasData(ToonFlattening.FLATTEN_TIMERS.get())) {
+                    level.getData(ToonFlattening.FLATTEN_TIMERS.get()).cancelAll(player);
+                }
+                pins.untrack(player);
+                continue;
+            }
+
+            // Teleported or pushed while flattened, or dropped by a chunk unload; indexes follow the player
+            sections.update(player);
+            if (pins.needsTrack(player) && level.hasChunkAt(player.blockPosition())) {
+                pins.track(player, level);
+            }
+
+            if (player.isSpectator()) {
+                continue;
+            }
+
+            player.setOnGround(true);
+            player.setSprinting(false);
+            player.setSwimming(false);
+
+            if (player.isPassenger()) {
+                player.stopRiding();
+            }
+
+            if (player.isFallFlying()) {
+                player.stopFallFlying();
+            }
+        }
+    }
+
+    public static void onPlayerChangedDimension(PlayerEvent.PlayerChangedDimensionEvent event) {
+        if (!(event.getEntity() instanceof ServerPlayer player)) {
             return;
         }
 
-        player.setOnGround(true);
-        player.setSprinting(false);
-        player.setSwimming(false);
+        ServerLevel from = player.server.getLevel(event.getFrom());
+        if (from != null) {
+            FlatteningStateController.unregister(player, from);
+        }
+        FlatteningStateController.updateRegistry(player);
 
-        if (player.isPassenger()) {
-            player.stopRiding();
+        // The client rebuilds its player on dimension change, so it needs the full state again
+        if (FlattenedStateAttachment.isFlattened(player)) {
+            FlatteningStateController.syncToClient(player, true);
         }
+    }
 
-        if (player.isFallFlying()) {
-            player.stopFallFlying();
+    public static void onPlayerLoggedOut(PlayerEvent.PlayerLoggedOutEvent event) {
+        if (event.getEntity() instanceof ServerPlayer player) {
+            FlatteningStateController.unregister(player, player.serverLevel());
         }
     }
 }
@@ -1,15 +1,16 @@
 package com.terryfox.toonflattening.event;
 
 import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
-import net.minecraft.world.damagesource.DamageTypes;
+import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.neoforge.event.entity.living.LivingIncomingDamageEvent;
 
 public class SuffocationHandler {
-    public static void onLivingIncomingDamage(LivingIncomingDamageEvent event) {
-        FlattenedStateAttachment.ifFlattened(event.getEntity(), () -> {
-            if (event.getSource().is(DamageTypes.IN_WALL) || event.getSource().is(DamageTypes.CRAMMING)) {
-                event.setCanceled(true);
-            }
-        });
+    /**
+     * In-wall and cramming damage, routed by DamageRouter.
+     */
+    public static void onSuffocation(LivingIncomingDamageEvent event, ServerPlayer player) {
+        if (FlattenedStateAttachment.isFlattened(player)) {
+            event.setCanceled(true);
+        }
     }
 }
@@ -0,0 +1,113 @@
+package com.terryfox.toonflattening.gametest;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.attachment.AnimationState;
+import com.terryfox.toonflattening.attachment.FrozenPoseData;
+import com.terryfox.toonflattening.attachment.RotationState;
+import com.terryfox.toonflattening.config.ConfigSnapshot;
+import com.terryfox.toonflattening.network.FlattenStateEntry;
+import io.netty.buffer.Unpooled;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.Optional;
+
+/**
+ * Compares FlattenStateEntry.CODEC against the single-record codec it replaced, which sent every
+ * field on every update and the frozen pose as NBT.
+ */
+@GameTestHolder(ToonFlattening.MODID)
+@PrefixGameTestTemplate(false)
+public class FlattenStateCodecGameTest {
+    private static final int WARMUP_ENCODES = 20_000;
+    private static final int MEASURED_ENCODES = 100_000;
+
+    private static final int PLAYER_ID = 1234;
+    private static final long FLATTEN_TIME = 120_000L;
+    private static final FrozenPoseData POSE = new FrozenPoseData(
+        new RotationState(93.5F, 101.25F, -12.0F),
+        new AnimationState(37.2F, 0.4F, 0.0F, 0, false, 0.0F, false)
+    );
+
+    /**
+     * The pre-delta layout: one record per update, frozen pose through its NBT codec.
+     */
+    private record LegacyEntry(int playerId, boolean isFlattened, long flattenTime, Optional<FrozenPoseData> frozenPose, double accumulatedSpread, String flatteningSource) {
+        static final StreamCodec<FriendlyByteBuf, LegacyEntry> CODEC = StreamCodec.composite(
+            ByteBufCodecs.VAR_INT, LegacyEntry::playerId,
+            ByteBufCodecs.BOOL, LegacyEntry::isFlattened,
+            ByteBufCodecs.VAR_LONG, LegacyEntry::flattenTime,
+            ByteBufCodecs.optional(ByteBufCodecs.fromCodec(FrozenPoseData.CODEC)), LegacyEntry::frozenPose,
+            ByteBufCodecs.DOUBLE, LegacyEntry::accumulatedSpread,
+            ByteBufCodecs.STRING_UTF8, LegacyEntry::flatteningSource,
+            LegacyEntry::new
+        );
+    }
+
+    /**
+     * Encodes a first flatten, a re-flatten and a reform with both codecs and logs bytes and
+     * ns per encode of each. Fails if the current codec is larger for any of them, or slower for
+     * the first flatten (the NBT pose dominates the old encode).
+     */
+    @GameTest(template = "flat_floor")
+    public static void entryCodecSizeAndSpeed(GameTestHelper helper) {
+        double spread = ConfigSnapshot.get().spreadOfSteps(2);
+
+        Comparison flatten = compare("flatten",
+            new FlattenStateEntry.Full(PLAYER_ID, FLATTEN_TIME, Optional.of(POSE), spread, "ANVIL", 10, Long.MIN_VALUE),
+            new LegacyEntry(PLAYER_ID, true, FLATTEN_TIME, Optional.of(POSE), spread, "ANVIL"));
+        Comparison spreadChanged = compare("spread change",
+            new FlattenStateEntry.SpreadChanged(PLAYER_ID, ConfigSnapshot.get().spreadOfSteps(3), "HAMMER"),
+            new LegacyEntry(PLAYER_ID, true, FLATTEN_TIME, Optional.of(POSE), ConfigSnapshot.get().spreadOfSteps(3), "HAMMER"));
+        Comparison reformed = compare("reform",
+            new FlattenStateEntry.Reformed(PLAYER_ID),
+            new LegacyEntry(PLAYER_ID, false, 0L, Optional.empty(), 0.0, ""));
+
+        for (Comparison comparison : new Comparison[] {flatten, spreadChanged, reformed}) {
+            helper.assertTrue(comparison.bytes() < comparison.legacyBytes(),
+                "Entry for " + comparison.name() + " grew: " + comparison.bytes() + " vs " + comparison.legacyBytes() + " bytes");
+        }
+        helper.assertTrue(flatten.nanos() < flatten.legacyNanos(),
+            "Entry for flatten encodes slower: " + flatten.nanos() + " vs " + flatten.legacyNanos() + " ns");
+        helper.succeed();
+    }
+
+    private static Comparison compare(String name, FlattenStateEntry entry, LegacyEntry legacy) {
+        FriendlyByteBuf buf = new FriendlyByteBuf(Unpooled.buffer());
+        int bytes = encodedSize(buf, entry, FlattenStateEntry.CODEC);
+        int legacyBytes = encodedSize(buf, legacy, LegacyEntry.CODEC);
+
+        time(buf, entry, FlattenStateEntry.CODEC, WARMUP_ENCODES);
+        time(buf, legacy, LegacyEntry.CODEC, WARMUP_ENCODES);
+        long nanos = time(buf, entry, FlattenStateEntry.CODEC, MEASURED_ENCODES) / MEASURED_ENCODES;
+        long legacyNanos = time(buf, legacy, LegacyEntry.CODEC, MEASURED_ENCODES) / MEASURED_ENCODES;
+
+        ToonFlattening.LOGGER.info("Flatten state entry ({}): {} bytes, {} ns/encode; old codec {} bytes, {} ns/encode",
+            name, bytes, nanos, legacyBytes, legacyNanos);
+        buf.release();
+        return new Comparison(name, bytes, legacyBytes, nanos, legacyNanos);
+    }
+
+    private static <T> int encodedSize(FriendlyByteBuf buf, T value, StreamCodec<FriendlyByteBuf, T> codec) {
+        buf.clear();
+        codec.encode(buf, value);
+        return buf.writerIndex();
+    }
+
+    private static <T> long time(FriendlyByteBuf buf, T value, StreamCodec<FriendlyByteBuf, T> codec, int encodes) {
+        long start = System.nanoTime();
+        for (int i = 0; i < encodes; i++) {
+            buf.clear();
+            codec.encode(buf, value);
+        }
+        return System.nanoTime() - start;
+    }
+
+    private record Comparison(String name, int bytes, int legacyBytes, long nanos, long legacyNanos) {
+    }
+}
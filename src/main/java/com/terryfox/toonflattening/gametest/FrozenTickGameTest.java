@@ -0,0 +1,114 @@
+package com.terryfox.toonflattening.gametest;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.config.ConfigSnapshot;
+import com.terryfox.toonflattening.config.ToonFlatteningConfig;
+import com.terryfox.toonflattening.core.FlatteningStateController;
+import com.terryfox.toonflattening.core.FrozenTick;
+import net.minecraft.core.BlockPos;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.level.block.Blocks;
+import net.minecraft.world.phys.Vec3;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * GameTests for frozen-tick mode. Run with the gameTestServer run config, or /test in a dev world.
+ */
+@GameTestHolder(ToonFlattening.MODID)
+@PrefixGameTestTemplate(false)
+public class FrozenTickGameTest {
+    private static final int PLAYERS = 100;
+    private static final int WARMUP_TICKS = 100;
+    private static final int MEASURED_TICKS = 400;
+    // Well under the expected saving, so scheduling noise doesn't fail the run
+    private static final int MIN_SAVING_PERCENT = 10;
+
+    /**
+     * Ticks many flattened players with frozenTickEnabled off and then on. Fails if a frozen player
+     * moves, or if frozen ticks don't save at least MIN_SAVING_PERCENT; the failure message and
+     * the log carry the per-player tick cost of both.
+     */
+    @GameTest(template = "flat_floor")
+    public static void frozenTickSaving(GameTestHelper helper) {
+        List<ServerPlayer> players = new ArrayList<>(PLAYERS);
+        boolean configured = ToonFlatteningConfig.CONFIG.frozenTickEnabled.get();
+        try {
+            for (int i = 0; i < PLAYERS; i++) {
+                ServerPlayer player = helper.makeMockServerPlayerInLevel();
+                players.add(player);
+                player.moveTo(helper.absoluteVec(new Vec3(1.5 + i % 7, 1.0, 1.5 + (i / 7) % 7)));
+                FlatteningStateController.flatten(player, 0.0, 0.0);
+            }
+            List<Vec3> positions = players.stream().map(ServerPlayer::position).toList();
+
+            setFrozenTickEnabled(false);
+            tick(players, WARMUP_TICKS);
+            long fullNanos = tick(players, MEASURED_TICKS);
+
+            setFrozenTickEnabled(true);
+            tick(players, WARMUP_TICKS);
+            long frozenNanos = tick(players, MEASURED_TICKS);
+
+            long samples = (long) PLAYERS * MEASURED_TICKS;
+            long savedPercent = fullNanos > 0 ? 100 - frozenNanos * 100 / fullNanos : 0;
+            String timings = String.format("%d players x %d ticks, full %d ns/player-tick, frozen %d ns/player-tick (%d%% saved)",
+                PLAYERS, MEASURED_TICKS, fullNanos / samples, frozenNanos / samples, savedPercent);
+            ToonFlattening.LOGGER.info("Frozen tick: {}", timings);
+
+            for (int i = 0; i < PLAYERS; i++) {
+                ServerPlayer player = players.get(i);
+                helper.assertTrue(FlattenedStateAttachment.isFlattened(player), "Player reformed during the test");
+                helper.assertTrue(player.position().distanceToSqr(positions.get(i)) < 1.0E-6, "Frozen player moved");
+            }
+            helper.assertTrue(savedPercent >= MIN_SAVING_PERCENT, "Frozen tick saved too little: " + timings);
+        } finally {
+            setFrozenTickEnabled(configured);
+            players.forEach(player -> player.server.getPlayerList().remove(player));
+        }
+        helper.succeed();
+    }
+
+    /**
+     * A frozen player standing in water still sees it: water state drives drowning and extinguishing.
+     */
+    @GameTest(template = "flat_floor")
+    public static void frozenPlayerStaysInWater(GameTestHelper helper) {
+        BlockPos pos = new BlockPos(4, 1, 4);
+        ServerPlayer player = helper.makeMockServerPlayerInLevel();
+        try {
+            player.moveTo(helper.absoluteVec(Vec3.atBottomCenterOf(pos)));
+            FlatteningStateController.flatten(player, 0.0, 0.0);
+
+            helper.setBlock(pos, Blocks.WATER);
+            player.doTick();
+
+            helper.assertTrue(FrozenTick.isFrozen(player), "Player is not in frozen-tick mode");
+            helper.assertTrue(player.isInWater(), "Frozen player lost track of the water");
+        } finally {
+            player.server.getPlayerList().remove(player);
+        }
+        helper.succeed();
+    }
+
+    private static void setFrozenTickEnabled(boolean enabled) {
+        ToonFlatteningConfig.CONFIG.frozenTickEnabled.set(enabled);
+        ConfigSnapshot.refresh();
+    }
+
+    private static long tick(List<ServerPlayer> players, int ticks) {
+        long start = System.nanoTime();
+        for (int t = 0; t < ticks; t++) {
+            for (ServerPlayer player : players) {
+                player.doTick();
+            }
+        }
+        return System.nanoTime() - start;
+    }
+}
@@ -0,0 +1,77 @@
+package com.terryfox.toonflattening.gametest;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import net.minecraft.gametest.framework.GameTest;
+import net.minecraft.gametest.framework.GameTestHelper;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.EntityType;
+import net.minecraft.world.entity.animal.Pig;
+import net.minecraft.world.entity.vehicle.AbstractMinecart;
+import net.minecraft.world.phys.Vec3;
+import net.neoforged.neoforge.gametest.GameTestHolder;
+import net.neoforged.neoforge.gametest.PrefixGameTestTemplate;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Counts heap allocation on the hooked push and collision checks for entities that aren't
+ * flattened, using the JVM's per-thread allocation counter.
+ */
+@GameTestHolder(ToonFlattening.MODID)
+@PrefixGameTestTemplate(false)
+public class PushHookAllocationGameTest {
+    private static final int WARMUP_ROUNDS = 200_000;
+    private static final int MEASURED_ROUNDS = 1_000_000;
+    private static final int CALLS_PER_ROUND = 6;
+    // Smallest CallbackInfo is 24 bytes; a per-call allocation can't average below this
+    private static final double MAX_BYTES_PER_CALL = 1.0;
+
+    /**
+     * Runs isPushable, canBeCollidedWith and canCollideWith on a player, a pig and a minecart,
+     * logs bytes per call, and fails if the calls allocate.
+     */
+    @GameTest(template = "flat_floor")
+    public static void pushHooksDontAllocate(GameTestHelper helper) {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean threads)
+                || !threads.isThreadAllocatedMemorySupported()) {
+            helper.fail("Per-thread allocation counting is unsupported on this JVM");
+            return;
+        }
+        threads.setThreadAllocatedMemoryEnabled(true);
+
+        ServerPlayer player = helper.makeMockServerPlayerInLevel();
+        try {
+            player.moveTo(helper.absoluteVec(new Vec3(1.5, 1.0, 1.5)));
+            Pig pig = helper.spawn(EntityType.PIG, new Vec3(3.5, 1.0, 1.5));
+            AbstractMinecart cart = helper.spawn(EntityType.MINECART, new Vec3(5.5, 1.0, 1.5));
+
+            calls(player, pig, cart, WARMUP_ROUNDS);
+            long threadId = Thread.currentThread().threadId();
+            long before = threads.getThreadAllocatedBytes(threadId);
+            int sink = calls(player, pig, cart, MEASURED_ROUNDS);
+            long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+
+            double bytesPerCall = (double) allocated / ((long) MEASURED_ROUNDS * CALLS_PER_ROUND);
+            ToonFlattening.LOGGER.info("Push hooks: {} calls allocated {} bytes ({} bytes/call, sink {})",
+                (long) MEASURED_ROUNDS * CALLS_PER_ROUND, allocated, String.format("%.4f", bytesPerCall), sink);
+            helper.assertTrue(bytesPerCall < MAX_BYTES_PER_CALL,
+                "Push hooks allocate " + String.format("%.4f", bytesPerCall) + " bytes/call");
+        } finally {
+            player.server.getPlayerList().remove(player);
+        }
+        helper.succeed();
+    }
+
+    private static int calls(ServerPlayer player, Pig pig, AbstractMinecart cart, int rounds) {
+        int sink = 0;
+        for (int i = 0; i < rounds; i++) {
+            sink += player.isPushable() ? 1 : 0;
+            sink += player.canBeCollidedWith() ? 1 : 0;
+            sink += player.canCollideWith(pig) ? 1 : 0;
+            sink += pig.isPushable() ? 1 : 0;
+            sink += pig.canCollideWith(player) ? 1 : 0;
+            sink += cart.canCollideWith(player) ? 1 : 0;
+        }
+        return sink;
+    }
+}
@@ -0,0 +1,48 @@
+package com.terryfox.toonflattening.integration;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.core.ScaleDimensions;
+import net.minecraft.world.entity.player.Player;
+import net.neoforged.neoforge.event.entity.EntityEvent;
+
+/**
+ * Scales without Pehkui. The hitbox and eye height come from EntityEvent.Size, derived from the
+ * flattened state on both sides, so only the state packet crosses the network. The squash
+ * animation is purely visual and runs in the client renderer (see client.NativeScaleAnimator)
+ * from flattenTime and animationTicks; nothing updates per tick on the server.
+ */
+public class NativeScaleBackend implements ScaleBackend {
+    @Override
+    public void setScale(Player player, ScaleDimensions scale) {
+        // The size event reads the attachment, which is already updated
+        player.refreshDimensions();
+    }
+
+    @Override
+    public void setScaleWithDelay(Player player, ScaleDimensions scale, int tickDelay) {
+        player.refreshDimensions();
+    }
+
+    @Override
+    public void onStateApplied(Player player) {
+        player.refreshDimensions();
+    }
+
+    /**
+     * Registered unconditionally; a client only learns the server's backend after login.
+     */
+    public static void onEntitySize(EntityEvent.Size event) {
+        if (!ScaleBackend.isNative()) {
+            return;
+        }
+
+        if (!(event.getEntity() instanceof Player player) || !FlattenedStateAttachment.isFlattened(player)) {
+            return;
+        }
+
+        FlattenedStateAttachment state = player.getData(ToonFlattening.FLATTENED_STATE.get());
+        ScaleDimensions scale = ScaleDimensions.fromConfig(state.accumulatedSpread());
+        event.setNewSize(event.getNewSize().scale(scale.width(), scale.height()));
+    }
+}
@@ -0,0 +1,120 @@
+package com.terryfox.toonflattening.integration;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.config.ConfigSnapshot;
+import com.terryfox.toonflattening.core.ScaleDimensions;
+import net.minecraft.resources.ResourceLocation;
+import net.minecraft.util.Mth;
+import net.minecraft.world.entity.player.Player;
+import virtuoel.pehkui.api.ScaleData;
+import virtuoel.pehkui.api.ScaleModifier;
+import virtuoel.pehkui.api.ScaleRegistries;
+import virtuoel.pehkui.api.ScaleType;
+import virtuoel.pehkui.api.ScaleTypes;
+
+/**
+ * Scales through a single Pehkui scale type, toonflattening:flatten, whose value is a "flatten
+ * amount" that drives both HEIGHT and WIDTH through modifiers. One target and one tick delay per
+ * change means one scale entry in Pehkui's sync instead of two. Pehkui still interpolates per
+ * tick and recomputes hitbox and eye height.
+ *
+ * Flatten amount: 1 is normal size; 1..2 squashes height from 1 to heightScale; above 2 the
+ * excess is extra width (amount 2 + s is width 1 + s). A first flatten therefore squashes, then
+ * spreads, within the one transition.
+ */
+public class PehkuiScaleBackend implements ScaleBackend {
+    private static final float NORMAL = 1.0f;
+    private static final float SQUASHED = 2.0f;
+
+    private static final ScaleModifier HEIGHT_MODIFIER = ScaleRegistries.register(
+        ScaleRegistries.SCALE_MODIFIERS,
+        ResourceLocation.fromNamespaceAndPath(ToonFlattening.MODID, "flatten_height"),
+        new FlattenModifier(true)
+    );
+
+    private static final ScaleModifier WIDTH_MODIFIER = ScaleRegistries.register(
+        ScaleRegistries.SCALE_MODIFIERS,
+        ResourceLocation.fromNamespaceAndPath(ToonFlattening.MODID, "flatten_width"),
+        new FlattenModifier(false)
+    );
+
+    private static final ScaleType FLATTEN = ScaleRegistries.register(
+        ScaleRegistries.SCALE_TYPES,
+        ResourceLocation.fromNamespaceAndPath(ToonFlattening.MODID, "flatten"),
+        ScaleType.Builder.create()
+            .affectsDimensions()
+            .addDependentModifier(HEIGHT_MODIFIER)
+            .addDependentModifier(WIDTH_MODIFIER)
+            .build()
+    );
+
+    // Default modifiers apply to every entity's HEIGHT/WIDTH data, including the client copies of
+    // other players, so no per-entity modifier state has to be saved or synced. The modifiers return
+    // straight away for anything but a player, so other entities pay one type check, not a lookup.
+    static {
+        ScaleTypes.HEIGHT.getDefaultBaseValueModifiers().add(HEIGHT_MODIFIER);
+        ScaleTypes.WIDTH.getDefaultBaseValueModifiers().add(WIDTH_MODIFIER);
+    }
+
+    @Override
+    public void setScale(Player player, ScaleDimensions scale) {
+        clearLegacyScales(player);
+        FLATTEN.getScaleData(player).setTargetScale(flattenAmount(scale));
+    }
+
+    @Override
+    public void setScaleWithDelay(Player player, ScaleDimensions scale, int tickDelay) {
+        ScaleData data = FLATTEN.getScaleData(player);
+        data.setScaleTickDelay(tickDelay);
+        data.setTargetScale(flattenAmount(scale));
+    }
+
+    private static float flattenAmount(ScaleDimensions scale) {
+        return scale.equals(ScaleDimensions.NORMAL) ? NORMAL : SQUASHED + (scale.width() - 1.0f);
+    }
+
+    /**
+     * Players saved before the flatten scale type may still carry HEIGHT/WIDTH base scales.
+     * setScale runs on login, so it resets them there.
+     */
+    private static void clearLegacyScales(Player player) {
+        if (ScaleTypes.HEIGHT.getScaleData(player).getBaseScale() != 1.0f) {
+            ScaleTypes.HEIGHT.getScaleData(player).setBaseScale(1.0f);
+        }
+        if (ScaleTypes.WIDTH.getScaleData(player).getBaseScale() != 1.0f) {
+            ScaleTypes.WIDTH.getScaleData(player).setBaseScale(1.0f);
+        }
+    }
+
+    private static final class FlattenModifier extends ScaleModifier {
+        private final boolean height;
+
+        private FlattenModifier(boolean height) {
+            this.height = height;
+        }
+
+        @Override
+        public float modifyScale(ScaleData scaleData, float modifiedScale, float delta) {
+            if (!(scaleData.getEntity() instanceof Player player)) {
+                return modifiedScale;
+            }
+            return modifiedScale * factor(FLATTEN.getScaleData(player).getScale(delta));
+        }
+
+        @Override
+        public float modifyPrevScale(ScaleData scaleData, float modifiedScale) {
+            if (!(scaleData.getEntity() instanceof Player player)) {
+                return modifiedScale;
+            }
+            return modifiedScale * factor(FLATTEN.getScaleData(player).getPrevScale());
+        }
+
+        private float factor(float amount) {
+            if (height) {
+                float squash = Mth.clamp(amount - NORMAL, 0.0f, 1.0f);
+                return Mth.lerp(squash, 1.0f, ConfigSnapshot.get().heightScale);
+            }
+            return 1.0f + Math.max(0.0f, amount - SQUASHED);
+        }
+    }
+}
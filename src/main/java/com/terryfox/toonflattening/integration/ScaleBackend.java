@@ -0,0 +1,34 @@
+package com.terryfox.toonflattening.integration;
+
+import com.terryfox.toonflattening.core.ScaleDimensions;
+import net.minecraft.world.entity.player.Player;
+
+/**
+ * How flattened players are resized. The active backend is chosen by the server; see ScaleBackends.
+ */
+public interface ScaleBackend {
+    static ScaleBackend get() {
+        return ScaleBackends.active();
+    }
+
+    static boolean isNative() {
+        return ScaleBackends.active() instanceof NativeScaleBackend;
+    }
+
+    void setScale(Player player, ScaleDimensions scale);
+
+    /**
+     * Sets the scale, animating to it over tickDelay ticks where the backend animates on the server.
+     */
+    void setScaleWithDelay(Player player, ScaleDimensions scale, int tickDelay);
+
+    default void resetScale(Player player) {
+        setScale(player, ScaleDimensions.NORMAL);
+    }
+
+    /**
+     * Called after a synced or predicted state was written to a client-side player.
+     */
+    default void onStateApplied(Player player) {
+    }
+}
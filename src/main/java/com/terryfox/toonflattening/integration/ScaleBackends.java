@@ -0,0 +1,55 @@
+package com.terryfox.toonflattening.integration;
+
+import com.terryfox.toonflattening.config.FeatureToggles;
+import net.neoforged.fml.ModList;
+
+/**
+ * Holds the active ScaleBackend. The server picks it at startup (Pehkui by default, native when
+ * FeatureToggles selects it or Pehkui isn't installed) and tells each client on login through
+ * ScaleBackendPayload, so both sides size and render flattened players the same way.
+ *
+ * When Pehkui is installed its scale type is always registered, whichever backend is active,
+ * so a client can follow a server that uses it.
+ */
+public final class ScaleBackends {
+    private static final ScaleBackend NATIVE = new NativeScaleBackend();
+    private static final ScaleBackend PEHKUI = ModList.get().isLoaded("pehkui") ? new PehkuiScaleBackend() : null;
+    private static final boolean LOCAL_NATIVE = FeatureToggles.NATIVE_SCALING || PEHKUI == null;
+
+    private static volatile ScaleBackend active = LOCAL_NATIVE ? NATIVE : PEHKUI;
+
+    private ScaleBackends() {
+    }
+
+    /**
+     * Loads the class during mod construction, which is when Pehkui expects scale types to be registered.
+     */
+    public static void init() {
+    }
+
+    static ScaleBackend active() {
+        return active;
+    }
+
+    /**
+     * This side's own choice; what a server announces to its clients.
+     */
+    public static boolean isLocalChoiceNative() {
+        return LOCAL_NATIVE;
+    }
+
+    /**
+     * Client: follow the connected server's backend. Falls back to native if the server uses
+     * Pehkui but this client doesn't have it.
+     */
+    public static void useServerChoice(boolean nativeScaling) {
+        active = nativeScaling || PEHKUI == null ? NATIVE : PEHKUI;
+    }
+
+    /**
+     * Client: back to the local choice after disconnecting.
+     */
+    public static void useLocalChoice() {
+        active = LOCAL_NATIVE ? NATIVE : PEHKUI;
+    }
+}
@@ -0,0 +1,25 @@
+package com.terryfox.toonflattening.mixin;
+
+import com.terryfox.toonflattening.core.AnvilStateFlag;
+import net.minecraft.world.level.block.state.BlockBehaviour;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Per-state anvil tag flag, refreshed on tag reload.
+ */
+@Mixin(BlockBehaviour.BlockStateBase.class)
+public class BlockStateAnvilFlagMixin implements AnvilStateFlag {
+    @Unique
+    private boolean toonflattening$anvil;
+
+    @Override
+    public boolean toonflattening$isAnvil() {
+        return toonflattening$anvil;
+    }
+
+    @Override
+    public void toonflattening$setAnvil(boolean anvil) {
+        toonflattening$anvil = anvil;
+    }
+}
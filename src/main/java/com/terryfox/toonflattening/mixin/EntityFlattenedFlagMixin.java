@@ -0,0 +1,26 @@
+package com.terryfox.toonflattening.mixin;
+
+import com.terryfox.toonflattening.attachment.FlattenedFlagHolder;
+import net.minecraft.world.entity.Entity;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+/**
+ * Stores the flattened bit directly on the entity so the push/collision hot paths
+ * don't need an attachment map lookup.
+ */
+@Mixin(Entity.class)
+public class EntityFlattenedFlagMixin implements FlattenedFlagHolder {
+    @Unique
+    private boolean toonflattening$flattened;
+
+    @Override
+    public boolean toonflattening$isFlattened() {
+        return toonflattening$flattened;
+    }
+
+    @Override
+    public void toonflattening$setFlattened(boolean flattened) {
+        toonflattening$flattened = flattened;
+    }
+}
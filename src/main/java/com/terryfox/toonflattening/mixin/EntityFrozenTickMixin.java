@@ -0,0 +1,34 @@
+package com.terryfox.toonflattening.mixin;
+
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import com.terryfox.toonflattening.core.FrozenTick;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.phys.Vec3;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+/**
+ * Frozen-tick shortcut for fluid pushing in Entity.baseTick().
+ */
+@Mixin(Entity.class)
+public class EntityFrozenTickMixin {
+    /**
+     * Discards the current pushing for flattened players. The fluid scan still runs, so
+     * wasTouchingWater, the fluid heights, drowning, extinguishing and lava stay live.
+     */
+    @WrapOperation(
+        method = "baseTick",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/world/entity/Entity;updateInWaterStateAndDoFluidPushing()Z")
+    )
+    private boolean onFluidPushing(Entity self, Operation<Boolean> original) {
+        if (!FrozenTick.isFrozen(self)) {
+            return original.call(self);
+        }
+
+        Vec3 motion = self.getDeltaMovement();
+        boolean inFluid = original.call(self);
+        self.setDeltaMovement(motion);
+        return inFluid;
+    }
+}
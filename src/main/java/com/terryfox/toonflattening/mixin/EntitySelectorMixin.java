@@ -6,7 +6,6 @@ import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.EntitySelector;
 import net.minecraft.world.entity.vehicle.AbstractMinecart;
-import net.minecraft.world.phys.Vec3;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
 
@@ -30,7 +29,7 @@ public class EntitySelectorMixin {
      * 
      * When cart is approaching fast, returns false to exclude player from push list,
      * allowing cart to pass through. The actual flattening is triggered separately
-     * in AbstractMinecartCollisionMixin.canCollideWith().
+     * by the tick-start broadphase in MinecartFlatteningHandler.
      */
     @ModifyReturnValue(method = "pushableBy", at = @At("RETURN"))
     private static Predicate<Entity> wrapPushablePredicate(
@@ -48,11 +47,9 @@ public class EntitySelectorMixin {
                 return true;
             }
 
-            Vec3 velocity = cart.getDeltaMovement();
-
             // Bypass collision for fast approaching carts
-            // Flattening is triggered in AbstractMinecartCollisionMixin.canCollideWith()
-            if (MinecartFlatteningHandler.meetsVelocityThreshold(cart, player, velocity)) {
+            // Flattening is triggered by the tick-start broadphase in MinecartFlatteningHandler
+            if (MinecartFlatteningHandler.bypassesPush(cart, player)) {
                 return false;
             }
 
@@ -0,0 +1,49 @@
+package com.terryfox.toonflattening.mixin;
+
+import com.llamalad7.mixinextras.injector.ModifyExpressionValue;
+import com.llamalad7.mixinextras.injector.v2.WrapWithCondition;
+import com.terryfox.toonflattening.core.FrozenTick;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.phys.Vec3;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+/**
+ * Frozen-tick shortcuts for flattened players on the LivingEntity tick path.
+ */
+@Mixin(LivingEntity.class)
+public class LivingEntityFrozenTickMixin {
+    /**
+     * Skips travel() (movement and collision resolution). Velocity is zeroed on flatten and the
+     * player is held on the ground, so the move would be a no-op anyway.
+     */
+    @WrapWithCondition(
+        method = "aiStep",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/world/entity/LivingEntity;travel(Lnet/minecraft/world/phys/Vec3;)V")
+    )
+    private boolean onTravel(LivingEntity self, Vec3 travelVector) {
+        return !FrozenTick.isFrozen(self);
+    }
+
+    /**
+     * Skips the nearby-entity scan in pushEntities(). Flattened players neither push nor get crammed.
+     */
+    @WrapWithCondition(
+        method = "aiStep",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/world/entity/LivingEntity;pushEntities()V")
+    )
+    private boolean onPushEntities(LivingEntity self) {
+        return !FrozenTick.isFrozen(self);
+    }
+
+    /**
+     * Skips the suffocation block check; SuffocationHandler would cancel the damage anyway.
+     */
+    @ModifyExpressionValue(
+        method = "baseTick",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/world/entity/LivingEntity;isInWall()Z")
+    )
+    private boolean onIsInWall(boolean original) {
+        return original && !FrozenTick.isFrozen((LivingEntity) (Object) this);
+    }
+}
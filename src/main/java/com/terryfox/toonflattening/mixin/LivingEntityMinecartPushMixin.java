@@ -0,0 +1,32 @@
+package com.terryfox.toonflattening.mixin;
+
+import com.llamalad7.mixinextras.injector.v2.WrapWithCondition;
+import com.terryfox.toonflattening.event.MinecartFlatteningHandler;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.vehicle.AbstractMinecart;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+/**
+ * Minecart half of LivingEntityPushMixin, kept separate so it is only applied with the minecart feature.
+ */
+@Mixin(LivingEntity.class)
+public class LivingEntityMinecartPushMixin {
+    /**
+     * Prevents players from pushing fast-approaching minecarts (which would stop them).
+     * Chains with LivingEntityPushMixin's condition on the same call.
+     */
+    @WrapWithCondition(
+        method = "doPush",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/world/entity/Entity;push(Lnet/minecraft/world/entity/Entity;)V")
+    )
+    private boolean onDoPush(Entity entity, Entity self) {
+        if (entity instanceof AbstractMinecart cart && self instanceof ServerPlayer player) {
+            return !MinecartFlatteningHandler.bypassesPush(cart, player);
+        }
+
+        return true;
+    }
+}
@@ -1,58 +1,39 @@
 package com.terryfox.toonflattening.mixin;
 
+import com.llamalad7.mixinextras.injector.ModifyReturnValue;
+import com.llamalad7.mixinextras.injector.v2.WrapWithCondition;
 import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
-import com.terryfox.toonflattening.event.MinecartFlatteningHandler;
-import net.minecraft.server.level.ServerPlayer;
 import net.minecraft.world.entity.Entity;
 import net.minecraft.world.entity.LivingEntity;
-import net.minecraft.world.entity.vehicle.AbstractMinecart;
-import net.minecraft.world.phys.Vec3;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
+/**
+ * LivingEntity.push(Entity) needs no hook of its own: it only forwards to Entity.push(), whose
+ * guard PlayerPushMixin already extends to flattened entities.
+ */
 @Mixin(LivingEntity.class)
 public class LivingEntityPushMixin {
     /**
      * Prevents flattened living entities (players) from being marked as pushable.
      * LivingEntity overrides isPushable() from Entity, so we need a separate mixin.
      */
-    @Inject(method = "isPushable", at = @At("HEAD"), cancellable = true)
-    private void onIsPushable(CallbackInfoReturnable<Boolean> cir) {
-        Entity entity = (Entity) (Object) this;
-        FlattenedStateAttachment.ifFlattened(entity, () -> cir.setReturnValue(false));
+    @ModifyReturnValue(method = "isPushable", at = @At("RETURN"))
+    private boolean onIsPushable(boolean original) {
+        return original && !FlattenedStateAttachment.isFlattened((Entity) (Object) this);
     }
 
     /**
      * Prevents flattened living entities from initiating pushes on other entities.
-     * Also prevents players from pushing fast-approaching minecarts (which would stop them).
+     * The minecart exception lives in LivingEntityMinecartPushMixin.
+     * doPush() is a single entity.push(this) call, so wrapping that call is equivalent to cancelling.
      */
-    @Inject(method = "doPush", at = @At("HEAD"), cancellable = true)
-    private void onDoPush(Entity entity, CallbackInfo ci) {
-        Entity self = (Entity) (Object) this;
-
+    @WrapWithCondition(
+        method = "doPush",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/world/entity/Entity;push(Lnet/minecraft/world/entity/Entity;)V")
+    )
+    private boolean onDoPush(Entity entity, Entity self) {
         // Flattened entities shouldn't initiate pushes
-        FlattenedStateAttachment.ifFlattened(self, () -> ci.cancel());
-
-        // Don't push fast-approaching minecarts (prevents player stopping the cart)
-        if (entity instanceof AbstractMinecart cart && self instanceof ServerPlayer player) {
-            Vec3 velocity = cart.getDeltaMovement();
-            if (MinecartFlatteningHandler.meetsVelocityThreshold(cart, player, velocity)) {
-                ci.cancel();
-            }
-        }
-    }
-
-    /**
-     * Prevents flattened entities from being pushed.
-     */
-    @Inject(method = "push(Lnet/minecraft/world/entity/Entity;)V", at = @At("HEAD"), cancellable = true)
-    private void onPush(Entity entity, CallbackInfo ci) {
-        Entity self = (Entity) (Object) this;
-
-        // Flattened entities don't participate in collisions
-        FlattenedStateAttachment.ifFlattened(self, () -> ci.cancel());
+        return !FlattenedStateAttachment.isFlattened(self);
     }
 }
@@ -0,0 +1,33 @@
+package com.terryfox.toonflattening.mixin;
+
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import com.terryfox.toonflattening.core.FrozenTick;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.minecraft.world.phys.AABB;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+import java.util.List;
+
+/**
+ * Frozen-tick shortcut for the item/XP pickup scan in Player.aiStep().
+ */
+@Mixin(Player.class)
+public class PlayerFrozenTickMixin {
+    /**
+     * Returns an empty touch list for flattened players instead of querying nearby entities.
+     */
+    @WrapOperation(
+        method = "aiStep",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/world/level/Level;getEntities(Lnet/minecraft/world/entity/Entity;Lnet/minecraft/world/phys/AABB;)Ljava/util/List;")
+    )
+    private List<Entity> onTouchScan(Level level, Entity self, AABB area, Operation<List<Entity>> original) {
+        if (FrozenTick.isFrozen(self)) {
+            return List.of();
+        }
+        return original.call(level, self, area);
+    }
+}
@@ -1,57 +1,64 @@
 package com.terryfox.toonflattening.mixin;
 
+import com.llamalad7.mixinextras.injector.ModifyExpressionValue;
+import com.llamalad7.mixinextras.injector.ModifyReturnValue;
+import com.llamalad7.mixinextras.sugar.Local;
 import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
 import net.minecraft.world.entity.Entity;
-import net.minecraft.world.entity.player.Player;
 import org.spongepowered.asm.mixin.Mixin;
 import org.spongepowered.asm.mixin.injection.At;
-import org.spongepowered.asm.mixin.injection.Inject;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
-import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
 
+/**
+ * All hooks here are return-value/expression modifiers rather than cancellable injects,
+ * so the common non-flattened path allocates no CallbackInfo and only adds a field read.
+ */
 @Mixin(Entity.class)
 public class PlayerPushMixin {
     /**
      * Prevents flattened players from being marked as pushable.
      * Minecarts check isPushable() before attempting to push entities.
      */
-    @Inject(method = "isPushable", at = @At("HEAD"), cancellable = true)
-    private void onIsPushable(CallbackInfoReturnable<Boolean> cir) {
-        Entity entity = (Entity) (Object) this;
-        FlattenedStateAttachment.ifFlattened(entity, () -> cir.setReturnValue(false));
+    @ModifyReturnValue(method = "isPushable", at = @At("RETURN"))
+    private boolean onIsPushable(boolean original) {
+        return original && !FlattenedStateAttachment.isFlattened((Entity) (Object) this);
     }
 
     /**
      * Prevents flattened players from being pushed by entity collision.
      * Most entities bypass isPushable() and directly call push() via doPush().
      * Both injections are needed: isPushable for minecarts, push for everything else.
+     *
+     * push() skips its whole body when both entities ride the same vehicle, so reporting
+     * "same vehicle" for a flattened pair cancels the push without a CallbackInfo.
      */
-    @Inject(method = "push(Lnet/minecraft/world/entity/Entity;)V", at = @At("HEAD"), cancellable = true)
-    private void onPushByEntity(Entity entity, CallbackInfo ci) {
-        Entity self = (Entity) (Object) this;
-        // Cancel if self is flattened (don't get pushed)
-        FlattenedStateAttachment.ifFlattened(self, () -> ci.cancel());
-        // Cancel if pusher is flattened (flattened entities can't push)
-        FlattenedStateAttachment.ifFlattened(entity, () -> ci.cancel());
+    @ModifyExpressionValue(
+        method = "push(Lnet/minecraft/world/entity/Entity;)V",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/world/entity/Entity;isPassengerOfSameVehicle(Lnet/minecraft/world/entity/Entity;)Z")
+    )
+    private boolean onPushByEntity(boolean isPassengerOfSameVehicle, @Local(argsOnly = true) Entity entity) {
+        // Skip if self is flattened (don't get pushed)
+        // Skip if pusher is flattened (flattened entities can't push)
+        return isPassengerOfSameVehicle
+            || FlattenedStateAttachment.isFlattened((Entity) (Object) this)
+            || FlattenedStateAttachment.isFlattened(entity);
     }
 
     /**
      * Prevents other entities from colliding with flattened players.
      */
-    @Inject(method = "canBeCollidedWith", at = @At("HEAD"), cancellable = true)
-    private void onCanBeCollidedWith(CallbackInfoReturnable<Boolean> cir) {
-        Entity entity = (Entity) (Object) this;
-        FlattenedStateAttachment.ifFlattened(entity, () -> cir.setReturnValue(false));
+    @ModifyReturnValue(method = "canBeCollidedWith", at = @At("RETURN"))
+    private boolean onCanBeCollidedWith(boolean original) {
+        return original && !FlattenedStateAttachment.isFlattened((Entity) (Object) this);
     }
 
     /**
      * Prevents flattened players from colliding with other entities.
      */
-    @Inject(method = "canCollideWith", at = @At("HEAD"), cancellable = true)
-    private void onCanCollideWith(Entity entity, CallbackInfoReturnable<Boolean> cir) {
-        Entity self = (Entity) (Object) this;
-        FlattenedStateAttachment.ifFlattened(self, () -> cir.setReturnValue(false));
+    @ModifyReturnValue(method = "canCollideWith", at = @At("RETURN"))
+    private boolean onCanCollideWith(boolean original, @Local(argsOnly = true) Entity entity) {
         // Also prevent collision with flattened entities
-        FlattenedStateAttachment.ifFlattened(entity, () -> cir.setReturnValue(false));
+        return original
+            && !FlattenedStateAttachment.isFlattened((Entity) (Object) this)
+            && !FlattenedStateAttachment.isFlattened(entity);
     }
 }
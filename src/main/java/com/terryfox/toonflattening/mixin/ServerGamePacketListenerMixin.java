@@ -0,0 +1,45 @@
+package com.terryfox.toonflattening.mixin;
+
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.network.MovePacketThrottle;
+import net.minecraft.Util;
+import net.minecraft.network.protocol.game.ServerboundMovePlayerPacket;
+import net.minecraft.server.level.ServerPlayer;
+import net.minecraft.server.network.ServerGamePacketListenerImpl;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Rate-limits movement packets from flattened players on the connection thread, before vanilla
+ * hands them to the main thread for validation. Flattened clients already throttle themselves
+ * down to a keepalive (which always passes); this covers misbehaving ones.
+ */
+@Mixin(ServerGamePacketListenerImpl.class)
+public class ServerGamePacketListenerMixin {
+    @Shadow public ServerPlayer player;
+
+    // Only touched from the connection thread
+    @Unique
+    private long toonflattening$lastAcceptedMoveMillis = MovePacketThrottle.NONE;
+
+    @Inject(method = "handleMovePlayer", at = @At("HEAD"), cancellable = true)
+    private void onHandleMovePlayer(ServerboundMovePlayerPacket packet, CallbackInfo ci) {
+        // handleMovePlayer runs on the connection thread, then again on the main thread after
+        // ensureRunningOnSameThread re-queues it; only the first pass filters
+        if (player.server.isSameThread() || !FlattenedStateAttachment.isFlattened(player)) {
+            return;
+        }
+
+        long now = Util.getMillis();
+        if (!MovePacketThrottle.accepts(toonflattening$lastAcceptedMoveMillis, now)) {
+            ci.cancel();
+            return;
+        }
+
+        toonflattening$lastAcceptedMoveMillis = now;
+    }
+}
@@ -1,7 +1,6 @@
 package com.terryfox.toonflattening.mixin;
 
-import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
-import com.terryfox.toonflattening.core.AnvilPinningHelper;
+import com.terryfox.toonflattening.ToonFlattening;
 import net.minecraft.core.BlockPos;
 import net.minecraft.core.Direction;
 import net.minecraft.network.protocol.game.ServerboundPlayerActionPacket;
@@ -29,6 +28,9 @@ public class ServerPlayerGameModeMixin {
             int sequence,
             CallbackInfo ci
     ) {
+        // Cheapest check first: almost no position is pinning anyone
+        if (!player.serverLevel().getData(ToonFlattening.PINNED_ANVILS.get()).isPinning(pos)) return;
+
         // Cancel all block-break-related actions
         if (action != ServerboundPlayerActionPacket.Action.START_DESTROY_BLOCK &&
             action != ServerboundPlayerActionPacket.Action.ABORT_DESTROY_BLOCK &&
@@ -39,11 +41,6 @@ public class ServerPlayerGameModeMixin {
         BlockState blockState = player.level().getBlockState(pos);
         if (!blockState.is(BlockTags.ANVIL)) return;
 
-        BlockPos playerPos = player.blockPosition();
-        if (!AnvilPinningHelper.isAnvilPinningPosition(pos, playerPos)) return;
-
-        if (FlattenedStateAttachment.isFlattened(player)) {
-            ci.cancel();
-        }
+        ci.cancel();
     }
 }
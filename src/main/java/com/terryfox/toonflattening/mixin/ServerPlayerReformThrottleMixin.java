@@ -0,0 +1,44 @@
+package com.terryfox.toonflattening.mixin;
+
+import com.terryfox.toonflattening.network.ReformRequestThrottle;
+import com.terryfox.toonflattening.network.SyncFlattenBatchPayload;
+import net.minecraft.server.level.ServerPlayer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Per-player reform request debounce state. The last accepted time is only touched from the
+ * player's connection thread; the dropped sequence is handed over to the server thread.
+ */
+@Mixin(ServerPlayer.class)
+public class ServerPlayerReformThrottleMixin implements ReformRequestThrottle {
+    @Unique
+    private long toonflattening$lastReformRequestMillis = Long.MIN_VALUE;
+
+    @Unique
+    private final AtomicInteger toonflattening$droppedReformSequence = new AtomicInteger(SyncFlattenBatchPayload.NO_ACK);
+
+    @Override
+    public boolean toonflattening$tryAcceptReformRequest(long nowMillis, long minIntervalMillis) {
+        if (toonflattening$lastReformRequestMillis != Long.MIN_VALUE
+                && nowMillis - toonflattening$lastReformRequestMillis < minIntervalMillis) {
+            return false;
+        }
+        toonflattening$lastReformRequestMillis = nowMillis;
+        // The accepted request's ack supersedes any dropped one before it
+        toonflattening$droppedReformSequence.set(SyncFlattenBatchPayload.NO_ACK);
+        return true;
+    }
+
+    @Override
+    public void toonflattening$recordDroppedReformRequest(int sequence) {
+        toonflattening$droppedReformSequence.set(sequence);
+    }
+
+    @Override
+    public int toonflattening$takeDroppedReformRequest() {
+        return toonflattening$droppedReformSequence.getAndSet(SyncFlattenBatchPayload.NO_ACK);
+    }
+}
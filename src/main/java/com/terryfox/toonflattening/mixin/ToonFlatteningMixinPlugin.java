@@ -0,0 +1,56 @@
+package com.terryfox.toonflattening.mixin;
+
+import com.terryfox.toonflattening.config.FeatureToggles;
+import org.objectweb.asm.tree.ClassNode;
+import org.spongepowered.asm.mixin.extensibility.IMixinConfigPlugin;
+import org.spongepowered.asm.mixin.extensibility.IMixinInfo;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Skips the mixins of features turned off in FeatureToggles, so they add no bytecode to vanilla paths.
+ */
+public class ToonFlatteningMixinPlugin implements IMixinConfigPlugin {
+    private static final String PACKAGE = "com.terryfox.toonflattening.mixin.";
+
+    @Override
+    public void onLoad(String mixinPackage) {
+    }
+
+    @Override
+    public String getRefMapperConfig() {
+        return null;
+    }
+
+    @Override
+    public boolean shouldApplyMixin(String targetClassName, String mixinClassName) {
+        return switch (mixinClassName.substring(PACKAGE.length())) {
+            case "AbstractMinecartCollisionMixin",
+                 "EntitySelectorMixin",
+                 "LivingEntityMinecartPushMixin" -> FeatureToggles.MINECART;
+            case "ServerPlayerGameModeMixin",
+                 "client.MultiPlayerGameModeMixin" -> FeatureToggles.PINNING;
+            // Only AnvilStackHandler reads the flag, and it runs for stacking and pin tracking
+            case "BlockStateAnvilFlagMixin" -> FeatureToggles.ANVIL || FeatureToggles.PINNING;
+            default -> true;
+        };
+    }
+
+    @Override
+    public void acceptTargets(Set<String> myTargets, Set<String> otherTargets) {
+    }
+
+    @Override
+    public List<String> getMixins() {
+        return null;
+    }
+
+    @Override
+    public void preApply(String targetClassName, ClassNode targetClass, String mixinClassName, IMixinInfo mixinInfo) {
+    }
+
+    @Override
+    public void postApply(String targetClassName, ClassNode targetClass, String mixinClassName, IMixinInfo mixinInfo) {
+    }
+}
@@ -0,0 +1,15 @@
+package com.terryfox.toonflattening.mixin.accessor;
+
+import net.minecraft.client.model.PlayerModel;
+import net.minecraft.client.model.geom.ModelPart;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.gen.Accessor;
+
+/**
+ * Accessor mixin to read the private cloak part from PlayerModel.
+ */
+@Mixin(PlayerModel.class)
+public interface PlayerModelAccessor {
+    @Accessor("cloak")
+    ModelPart getCloak();
+}
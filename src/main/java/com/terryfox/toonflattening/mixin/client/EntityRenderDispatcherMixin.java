@@ -2,7 +2,6 @@ package com.terryfox.toonflattening.mixin.client;
 
 import com.mojang.blaze3d.vertex.PoseStack;
 import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
-import net.minecraft.client.player.AbstractClientPlayer;
 import net.minecraft.client.renderer.MultiBufferSource;
 import net.minecraft.client.renderer.entity.EntityRenderDispatcher;
 import net.minecraft.world.entity.Entity;
@@ -20,10 +19,8 @@ public class EntityRenderDispatcherMixin {
             PoseStack poseStack, MultiBufferSource buffer, Entity entity,
             float weight, float partialTicks, LevelReader level, float radius,
             CallbackInfo ci) {
-        if (entity instanceof AbstractClientPlayer player) {
-            if (FlattenedStateAttachment.isFlattened(player)) {
-                ci.cancel();
-            }
+        if (FlattenedStateAttachment.isFlattened(entity)) {
+            ci.cancel();
         }
     }
 }
@@ -0,0 +1,54 @@
+package com.terryfox.toonflattening.mixin.client;
+
+import com.llamalad7.mixinextras.injector.ModifyExpressionValue;
+import com.llamalad7.mixinextras.injector.wrapoperation.Operation;
+import com.llamalad7.mixinextras.injector.wrapoperation.WrapOperation;
+import com.llamalad7.mixinextras.sugar.Local;
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.client.FrozenPoseCache;
+import net.minecraft.client.model.EntityModel;
+import net.minecraft.client.model.PlayerModel;
+import net.minecraft.client.renderer.entity.LivingEntityRenderer;
+import net.minecraft.world.entity.Entity;
+import net.minecraft.world.entity.LivingEntity;
+import net.minecraft.world.entity.player.Player;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.injection.At;
+
+/**
+ * Renders flattened players in their frozen pose from FrozenPoseCache: the baked part poses
+ * replace setupAnim and the frozen body yaw replaces the interpolated one. The live entity
+ * (and so the local player's camera) is never modified.
+ */
+@Mixin(LivingEntityRenderer.class)
+public class LivingEntityRendererMixin {
+    @ModifyExpressionValue(
+        method = "render(Lnet/minecraft/world/entity/LivingEntity;FFLcom/mojang/blaze3d/vertex/PoseStack;Lnet/minecraft/client/renderer/MultiBufferSource;I)V",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/util/Mth;rotLerp(FFF)F", ordinal = 0)
+    )
+    private float onBodyRot(float yBodyRot, @Local(argsOnly = true) LivingEntity entity) {
+        if (!FlattenedStateAttachment.isFlattened(entity) || !(entity instanceof Player player)) {
+            return yBodyRot;
+        }
+
+        FrozenPoseCache.Baked baked = FrozenPoseCache.get(player);
+        return baked == null ? yBodyRot : baked.yBodyRot();
+    }
+
+    @WrapOperation(
+        method = "render(Lnet/minecraft/world/entity/LivingEntity;FFLcom/mojang/blaze3d/vertex/PoseStack;Lnet/minecraft/client/renderer/MultiBufferSource;I)V",
+        at = @At(value = "INVOKE", target = "Lnet/minecraft/client/model/EntityModel;setupAnim(Lnet/minecraft/world/entity/Entity;FFFFF)V")
+    )
+    private void onSetupAnim(EntityModel<Entity> model, Entity entity, float limbSwing, float limbSwingAmount, float ageInTicks,
+                             float netHeadYaw, float headPitch, Operation<Void> original) {
+        if (FlattenedStateAttachment.isFlattened(entity) && entity instanceof Player player && model instanceof PlayerModel<?> playerModel) {
+            FrozenPoseCache.Baked baked = FrozenPoseCache.get(player);
+            if (baked != null) {
+                baked.applyTo(playerModel);
+                return;
+            }
+        }
+
+        original.call(model, entity, limbSwing, limbSwingAmount, ageInTicks, netHeadYaw, headPitch);
+    }
+}
@@ -0,0 +1,40 @@
+package com.terryfox.toonflattening.mixin.client;
+
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import net.minecraft.client.player.LocalPlayer;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfo;
+
+/**
+ * Stops streaming position/rotation packets while flattened. The player can't move, so only a
+ * low-rate keepalive update is sent to keep the server's view of the client fresh.
+ */
+@Mixin(LocalPlayer.class)
+public class LocalPlayerMovePacketMixin {
+    /**
+     * Ticks between keepalive position updates while flattened (matches vanilla's position reminder).
+     */
+    @Unique
+    private static final int toonflattening$KEEPALIVE_TICKS = 20;
+
+    @Unique
+    private int toonflattening$ticksSinceSent;
+
+    @Inject(method = "sendPosition", at = @At("HEAD"), cancellable = true)
+    private void onSendPosition(CallbackInfo ci) {
+        if (!FlattenedStateAttachment.isFlattened((LocalPlayer) (Object) this)) {
+            toonflattening$ticksSinceSent = 0;
+            return;
+        }
+
+        if (++toonflattening$ticksSinceSent < toonflattening$KEEPALIVE_TICKS) {
+            ci.cancel();
+            return;
+        }
+
+        toonflattening$ticksSinceSent = 0;
+    }
+}
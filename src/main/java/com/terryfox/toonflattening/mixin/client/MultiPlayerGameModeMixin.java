@@ -0,0 +1,51 @@
+package com.terryfox.toonflattening.mixin.client;
+
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.core.AnvilPinningHelper;
+import net.minecraft.client.Minecraft;
+import net.minecraft.client.multiplayer.MultiPlayerGameMode;
+import net.minecraft.client.player.LocalPlayer;
+import net.minecraft.core.BlockPos;
+import net.minecraft.core.Direction;
+import net.minecraft.tags.BlockTags;
+import org.spongepowered.asm.mixin.Final;
+import org.spongepowered.asm.mixin.Mixin;
+import org.spongepowered.asm.mixin.Shadow;
+import org.spongepowered.asm.mixin.Unique;
+import org.spongepowered.asm.mixin.injection.At;
+import org.spongepowered.asm.mixin.injection.Inject;
+import org.spongepowered.asm.mixin.injection.callback.CallbackInfoReturnable;
+
+/**
+ * Client-side counterpart of ServerPlayerGameModeMixin: a flattened player can't dig at the anvil
+ * pinning them, so don't send the START/STOP_DESTROY_BLOCK actions the server would reject anyway.
+ */
+@Mixin(MultiPlayerGameMode.class)
+public class MultiPlayerGameModeMixin {
+    @Shadow @Final private Minecraft minecraft;
+
+    @Inject(method = "startDestroyBlock", at = @At("HEAD"), cancellable = true)
+    private void onStartDestroyBlock(BlockPos pos, Direction face, CallbackInfoReturnable<Boolean> cir) {
+        if (toonflattening$isPinningAnvil(pos)) {
+            cir.setReturnValue(false);
+        }
+    }
+
+    @Inject(method = "continueDestroyBlock", at = @At("HEAD"), cancellable = true)
+    private void onContinueDestroyBlock(BlockPos pos, Direction face, CallbackInfoReturnable<Boolean> cir) {
+        if (toonflattening$isPinningAnvil(pos)) {
+            cir.setReturnValue(false);
+        }
+    }
+
+    @Unique
+    private boolean toonflattening$isPinningAnvil(BlockPos pos) {
+        LocalPlayer player = minecraft.player;
+        if (player == null || !FlattenedStateAttachment.isFlattened(player) || player.isCreative()) {
+            return false;
+        }
+
+        return AnvilPinningHelper.isAnvilPinningPosition(pos, player.blockPosition())
+            && player.level().getBlockState(pos).is(BlockTags.ANVIL);
+    }
+}
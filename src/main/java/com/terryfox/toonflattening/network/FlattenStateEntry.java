@@ -0,0 +1,225 @@
+package com.terryfox.toonflattening.network;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import com.terryfox.toonflattening.attachment.FlatteningSource;
+import com.terryfox.toonflattening.attachment.FrozenPoseData;
+import com.terryfox.toonflattening.config.ConfigSnapshot;
+import com.terryfox.toonflattening.core.FlatteningStateController;
+import com.terryfox.toonflattening.integration.ScaleBackend;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.world.entity.player.Player;
+import net.minecraft.world.level.Level;
+import net.neoforged.neoforge.network.PacketDistributor;
+
+import java.util.Optional;
+
+/**
+ * One player's flattened-state update inside a SyncFlattenBatchPayload. Only first flattens, login,
+ * start-tracking and resync requests send Full; later changes send the smallest delta that
+ * describes them and the client patches its attachment.
+ */
+public sealed interface FlattenStateEntry {
+    int FULL = 0;
+    int SPREAD_CHANGED = 1;
+    int REFORMED = 2;
+
+    /**
+     * Layout: varint id, varint kind, then the kind's body.
+     */
+    StreamCodec<FriendlyByteBuf, FlattenStateEntry> CODEC = StreamCodec.of(
+        (buf, entry) -> {
+            buf.writeVarInt(entry.playerId());
+            buf.writeVarInt(entry.kind());
+            entry.writeBody(buf);
+        },
+        buf -> {
+            int playerId = buf.readVarInt();
+            int kind = buf.readVarInt();
+            return switch (kind) {
+                case FULL -> Full.read(playerId, buf);
+                case SPREAD_CHANGED -> SpreadChanged.read(playerId, buf);
+                case REFORMED -> new Reformed(playerId);
+                default -> throw new IllegalArgumentException("Unknown flatten state entry kind " + kind);
+            };
+        }
+    );
+
+    int playerId();
+
+    int kind();
+
+    void writeBody(FriendlyByteBuf buf);
+
+    /**
+     * Applies the entry to the matching player in the given (client) level.
+     * @return false if the player isn't in the level (yet)
+     */
+    default boolean apply(Level level) {
+        if (level.getEntity(playerId()) instanceof Player player) {
+            apply(player);
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Applies the entry to the player's attachment, asking the server for a resync if it doesn't fit.
+     */
+    default void apply(Player player) {
+        FlattenedStateAttachment updated = applyTo(player.getData(ToonFlattening.FLATTENED_STATE.get()));
+        if (updated == null) {
+            // Missed the Full this delta builds on
+            PacketDistributor.sendToServer(new RequestResyncPayload(playerId()));
+            return;
+        }
+        FlattenedStateAttachment.setState(player, updated);
+        ScaleBackend.get().onStateApplied(player);
+    }
+
+    /**
+     * @return the state after this entry, or null if the entry can't be applied to current
+     */
+    FlattenedStateAttachment applyTo(FlattenedStateAttachment current);
+
+    /**
+     * Builds the entry for a player's current state.
+     */
+    static FlattenStateEntry of(int playerId, FlattenedStateAttachment state, boolean full) {
+        if (!state.isFlattened()) {
+            return new Reformed(playerId);
+        }
+        if (full) {
+            return new Full(playerId, state.flattenTime(), Optional.ofNullable(state.frozenPose()), state.accumulatedSpread(), state.flatteningSource(), state.animationTicks(), FlatteningStateController.reformAllowedAt(state));
+        }
+        return new SpreadChanged(playerId, state.accumulatedSpread(), state.flatteningSource());
+    }
+
+    /**
+     * Spread is sent as a varint count of config half steps plus one (ConfigSnapshot.spreadSteps),
+     * which is exact and rebuilds onto the interned scales of ConfigSnapshot.scale, so the client's
+     * hitbox matches the server's. The server config is synced to clients, so both sides share the
+     * step. Spread that isn't on a step is sent as 0 followed by the full double.
+     */
+    private static void writeSpread(FriendlyByteBuf buf, double spread) {
+        long steps = ConfigSnapshot.get().spreadSteps(spread);
+        if (steps >= 0 && steps < Integer.MAX_VALUE) {
+            buf.writeVarInt((int) steps + 1);
+        } else {
+            buf.writeVarInt(0);
+            buf.writeDouble(spread);
+        }
+    }
+
+    private static double readSpread(FriendlyByteBuf buf) {
+        int steps = buf.readVarInt();
+        return steps == 0 ? buf.readDouble() : ConfigSnapshot.get().spreadOfSteps(steps - 1);
+    }
+
+    private static void writeReformAllowedAt(FriendlyByteBuf buf, long reformAllowedAt) {
+        if (reformAllowedAt == Long.MIN_VALUE) {
+            buf.writeByte(0); // pinning disabled
+        } else if (reformAllowedAt == Long.MAX_VALUE) {
+            buf.writeByte(1); // pinned indefinitely
+        } else {
+            buf.writeByte(2);
+            buf.writeVarLong(reformAllowedAt);
+        }
+    }
+
+    private static long readReformAllowedAt(FriendlyByteBuf buf) {
+        return switch (buf.readByte()) {
+            case 0 -> Long.MIN_VALUE;
+            case 1 -> Long.MAX_VALUE;
+            default -> buf.readVarLong();
+        };
+    }
+
+    /**
+     * Complete flattened state, including the frozen pose. reformAllowedAt is the game time from
+     * which an anvil no longer blocks reforming (see FlatteningStateController.reformAllowedAt),
+     * so the client can predict reforms.
+     */
+    record Full(int playerId, long flattenTime, Optional<FrozenPoseData> frozenPose, double accumulatedSpread, String flatteningSource, int animationTicks, long reformAllowedAt) implements FlattenStateEntry {
+        @Override
+        public int kind() {
+            return FULL;
+        }
+
+        @Override
+        public void writeBody(FriendlyByteBuf buf) {
+            buf.writeVarLong(flattenTime);
+            writeSpread(buf, accumulatedSpread);
+            buf.writeVarInt(FlatteningSource.byName(flatteningSource).id());
+            buf.writeVarInt(animationTicks);
+            buf.writeBoolean(frozenPose.isPresent());
+            frozenPose.ifPresent(pose -> FrozenPoseData.STREAM_CODEC.encode(buf, pose));
+            writeReformAllowedAt(buf, reformAllowedAt);
+        }
+
+        private static Full read(int playerId, FriendlyByteBuf buf) {
+            long flattenTime = buf.readVarLong();
+            double accumulatedSpread = readSpread(buf);
+            String flatteningSource = FlatteningSource.byId(buf.readVarInt()).serializedName();
+            int animationTicks = buf.readVarInt();
+            Optional<FrozenPoseData> frozenPose = buf.readBoolean()
+                ? Optional.of(FrozenPoseData.STREAM_CODEC.decode(buf))
+                : Optional.empty();
+            long reformAllowedAt = readReformAllowedAt(buf);
+            return new Full(playerId, flattenTime, frozenPose, accumulatedSpread, flatteningSource, animationTicks, reformAllowedAt);
+        }
+
+        @Override
+        public FlattenedStateAttachment applyTo(FlattenedStateAttachment current) {
+            return new FlattenedStateAttachment(true, flattenTime, frozenPose.orElse(null), accumulatedSpread, flatteningSource, animationTicks);
+        }
+    }
+
+    /**
+     * Spread changed on an already flattened player. Carries the source too, since a re-flatten
+     * by a different source (e.g. a hammer on an anvil-flattened player) changes both.
+     */
+    record SpreadChanged(int playerId, double accumulatedSpread, String flatteningSource) implements FlattenStateEntry {
+        @Override
+        public int kind() {
+            return SPREAD_CHANGED;
+        }
+
+        @Override
+        public void writeBody(FriendlyByteBuf buf) {
+            writeSpread(buf, accumulatedSpread);
+            buf.writeVarInt(FlatteningSource.byName(flatteningSource).id());
+        }
+
+        private static SpreadChanged read(int playerId, FriendlyByteBuf buf) {
+            double accumulatedSpread = readSpread(buf);
+            String flatteningSource = FlatteningSource.byId(buf.readVarInt()).serializedName();
+            return new SpreadChanged(playerId, accumulatedSpread, flatteningSource);
+        }
+
+        @Override
+        public FlattenedStateAttachment applyTo(FlattenedStateAttachment current) {
+            return current.isFlattened() ? current.withSpreadAndSource(accumulatedSpread, flatteningSource) : null;
+        }
+    }
+
+    /**
+     * Player is no longer flattened.
+     */
+    record Reformed(int playerId) implements FlattenStateEntry {
+        @Override
+        public int kind() {
+            return REFORMED;
+        }
+
+        @Override
+        public void writeBody(FriendlyByteBuf buf) {
+        }
+
+        @Override
+        public FlattenedStateAttachment applyTo(FlattenedStateAttachment current) {
+            return FlattenedStateAttachment.DEFAULT;
+        }
+    }
+}
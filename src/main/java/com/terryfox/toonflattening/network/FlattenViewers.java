@@ -0,0 +1,60 @@
+package com.terryfox.toonflattening.network;
+
+import com.terryfox.toonflattening.config.ConfigSnapshot;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Iterator;
+import java.util.Set;
+
+/**
+ * Players currently tracking the owning player, kept from NeoForge's start/stop tracking events.
+ * Flattened-state updates only ever go to these viewers (and the player themselves).
+ *
+ * Viewers outside the cosmetic sync radius are skipped; if they miss an update they are marked
+ * stale and get the current state once they come back in range.
+ */
+public class FlattenViewers {
+    private final Set<ServerPlayer> trackers = new ReferenceOpenHashSet<>();
+    private final Set<ServerPlayer> stale = new ReferenceOpenHashSet<>();
+
+    public void add(ServerPlayer viewer) {
+        trackers.add(viewer);
+    }
+
+    public void remove(ServerPlayer viewer) {
+        trackers.remove(viewer);
+        stale.remove(viewer);
+    }
+
+    public Set<ServerPlayer> trackers() {
+        return trackers;
+    }
+
+    public void markStale(ServerPlayer viewer) {
+        stale.add(viewer);
+    }
+
+    /**
+     * @return true if the viewer was stale; it no longer is
+     */
+    public boolean clearStale(ServerPlayer viewer) {
+        return stale.remove(viewer);
+    }
+
+    public boolean hasStale() {
+        return !stale.isEmpty();
+    }
+
+    public Iterator<ServerPlayer> staleIterator() {
+        return stale.iterator();
+    }
+
+    /**
+     * Whether the viewer is close enough to the target for cosmetic state updates.
+     */
+    public static boolean inSyncRadius(ServerPlayer viewer, ServerPlayer target) {
+        int radius = ConfigSnapshot.get().cosmeticSyncRadius;
+        return radius == 0 || viewer.distanceToSqr(target) <= (double) radius * radius;
+    }
+}
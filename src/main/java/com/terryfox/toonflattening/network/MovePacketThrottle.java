@@ -0,0 +1,33 @@
+package com.terryfox.toonflattening.network;
+
+/**
+ * Rate limit for movement packets from flattened players, applied on the connection thread.
+ * Updated clients only send a keepalive every KEEPALIVE_MILLIS while flattened, which always
+ * passes; anything faster is dropped before vanilla re-queues the packet onto the main thread.
+ */
+public final class MovePacketThrottle {
+    /**
+     * Last-accepted time of a player that hasn't had a move packet accepted yet.
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    /**
+     * Minimum time between accepted move packets (10 ticks).
+     */
+    public static final long MIN_INTERVAL_MILLIS = 500;
+
+    /**
+     * Interval of the flattened client's keepalive position update (20 ticks, see LocalPlayerMovePacketMixin).
+     */
+    public static final long KEEPALIVE_MILLIS = 1000;
+
+    private MovePacketThrottle() {
+    }
+
+    /**
+     * Whether a move packet arriving at nowMillis is accepted, given the last accepted one.
+     */
+    public static boolean accepts(long lastAcceptedMillis, long nowMillis) {
+        return lastAcceptedMillis == NONE || nowMillis - lastAcceptedMillis >= MIN_INTERVAL_MILLIS;
+    }
+}
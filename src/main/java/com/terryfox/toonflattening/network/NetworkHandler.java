@@ -1,29 +1,47 @@
 package com.terryfox.toonflattening.network;
 
 import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.attachment.FlattenedStateAttachment;
+import it.unimi.dsi.fastutil.objects.Reference2IntMap;
+import it.unimi.dsi.fastutil.objects.Reference2ObjectLinkedOpenHashMap;
+import net.minecraft.server.level.ServerLevel;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.bus.api.SubscribeEvent;
 import net.neoforged.fml.common.EventBusSubscriber;
+import net.neoforged.neoforge.event.entity.player.PlayerEvent;
+import net.neoforged.neoforge.event.tick.ServerTickEvent;
 import net.neoforged.neoforge.network.PacketDistributor;
 import net.neoforged.neoforge.network.event.RegisterPayloadHandlersEvent;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
 import net.neoforged.neoforge.network.registration.PayloadRegistrar;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 @EventBusSubscriber(modid = ToonFlattening.MODID)
 public class NetworkHandler {
+    /**
+     * Ticks between checks for stale viewers that came back into the cosmetic sync radius.
+     */
+    private static final int STALE_CHECK_INTERVAL = 10;
+
     @SubscribeEvent
     public static void register(RegisterPayloadHandlersEvent event) {
-        PayloadRegistrar registrar = event.registrar("1");
+        // Bump whenever a payload's wire format changes, so mismatched builds refuse to connect
+        // instead of failing to decode. 2: batched delta sync, reform sequences and acks, scale backend.
+        PayloadRegistrar registrar = event.registrar("2");
 
         // Client-bound packets
         registrar.playToClient(
-            SyncFlattenStatePayload.TYPE,
-            SyncFlattenStatePayload.CODEC,
-            SyncFlattenStatePayload::handle
+            SyncFlattenBatchPayload.TYPE,
+            SyncFlattenBatchPayload.CODEC,
+            SyncFlattenBatchPayload::handle
         );
         registrar.playToClient(
-            TriggerSquashAnimationPayload.TYPE,
-            TriggerSquashAnimationPayload.CODEC,
-            TriggerSquashAnimationPayload::handle
+            ScaleBackendPayload.TYPE,
+            ScaleBackendPayload.CODEC,
+            ScaleBackendPayload::handle
         );
 
         // Server-bound packets
@@ -32,20 +50,222 @@ public class NetworkHandler {
             RequestReformPayload.CODEC,
             ReformHandler::handleRequestReform
         );
+        registrar.playToServer(
+            RequestResyncPayload.TYPE,
+            RequestResyncPayload.CODEC,
+            NetworkHandler::handleRequestResync
+        );
+    }
+
+    /**
+     * Records the new viewer and, if the target is flattened and within the sync radius, sends
+     * them its full state. Unflattened players need nothing, since that is the client's default.
+     */
+    public static void onStartTracking(PlayerEvent.StartTracking event) {
+        if (!(event.getTarget() instanceof ServerPlayer target) || !(event.getEntity() instanceof ServerPlayer viewer)) {
+            return;
+        }
+
+        FlattenViewers viewers = target.getData(ToonFlattening.FLATTEN_VIEWERS.get());
+        viewers.add(viewer);
+
+        if (!FlattenedStateAttachment.isFlattened(target)) {
+            return;
+        }
+
+        if (FlattenViewers.inSyncRadius(viewer, target)) {
+            sendFull(viewer, target);
+        } else {
+            viewers.markStale(viewer);
+            target.serverLevel().getData(ToonFlattening.PENDING_FLATTEN_SYNC.get()).markStaleViewers(target);
+        }
+    }
+
+    public static void onStopTracking(PlayerEvent.StopTracking event) {
+        if (event.getTarget() instanceof ServerPlayer target
+                && event.getEntity() instanceof ServerPlayer viewer
+                && target.hasData(ToonFlattening.FLATTEN_VIEWERS.get())) {
+            target.getData(ToonFlattening.FLATTEN_VIEWERS.get()).remove(viewer);
+        }
     }
 
+    private static void handleRequestResync(RequestResyncPayload payload, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            if (!(context.player() instanceof ServerPlayer viewer)
+                    || !(viewer.serverLevel().getEntity(payload.playerId()) instanceof ServerPlayer target)) {
+                return;
+            }
+
+            // Never replicate to non-trackers
+            if (target == viewer || target.getData(ToonFlattening.FLATTEN_VIEWERS.get()).trackers().contains(viewer)) {
+                sendFull(viewer, target);
+            }
+        });
+    }
+
+    /**
+     * Sends the target's complete current state (Full, or Reformed if not flattened) to one viewer.
+     */
+    private static void sendFull(ServerPlayer viewer, ServerPlayer target) {
+        FlattenedStateAttachment state = target.getData(ToonFlattening.FLATTENED_STATE.get());
+        PacketDistributor.sendToPlayer(viewer, new SyncFlattenBatchPayload(
+            List.of(FlattenStateEntry.of(target.getId(), state, true)),
+            List.of(),
+            SyncFlattenBatchPayload.NO_ACK
+        ));
+    }
+
+    /**
+     * Marks the player's state for sync to themselves and their trackers at end of tick.
+     * Multiple changes within one tick go out as a single entry.
+     */
     public static void syncFlattenState(ServerPlayer player) {
-        var state = player.getData(ToonFlattening.FLATTENED_STATE.get());
-        PacketDistributor.sendToPlayersTrackingEntityAndSelf(
-            player,
-            state.toSyncPayload(player.getId())
-        );
+        syncFlattenState(player, false);
     }
 
+    /**
+     * As syncFlattenState(player); fullSync sends the complete state instead of a delta.
+     */
+    public static void syncFlattenState(ServerPlayer player, boolean fullSync) {
+        PendingFlattenSync pending = player.serverLevel().getData(ToonFlattening.PENDING_FLATTEN_SYNC.get());
+        if (fullSync) {
+            pending.markFullSync(player);
+        } else {
+            pending.markDirty(player);
+        }
+    }
+
+    /**
+     * Queues an acknowledgement of the player's reform request for the end-of-tick batch.
+     */
+    public static void ackReform(ServerPlayer player, int sequence) {
+        player.serverLevel().getData(ToonFlattening.PENDING_FLATTEN_SYNC.get()).ackReform(player, sequence);
+    }
+
+    /**
+     * Queues the squash animation alongside the player's end-of-tick state sync.
+     */
     public static void sendSquashAnimation(ServerPlayer player) {
-        PacketDistributor.sendToPlayersTrackingEntityAndSelf(
-            player,
-            new TriggerSquashAnimationPayload(player.getId())
+        player.serverLevel().getData(ToonFlattening.PENDING_FLATTEN_SYNC.get()).markSquash(player);
+    }
+
+    /**
+     * Sends each client one batch per level holding every change it can see from this tick, and
+     * periodically catches up viewers that missed updates while outside the sync radius.
+     */
+    public static void onServerTick(ServerTickEvent.Post event) {
+        boolean checkStale = event.getServer().getTickCount() % STALE_CHECK_INTERVAL == 0;
+
+        // Reform requests the debounce dropped on the network thread since the last flush
+        for (ServerPlayer player : event.getServer().getPlayerList().getPlayers()) {
+            int dropped = ((ReformRequestThrottle) player).toonflattening$takeDroppedReformRequest();
+            if (dropped != SyncFlattenBatchPayload.NO_ACK) {
+                ackReform(player, dropped);
+            }
+        }
+
+        for (ServerLevel level : event.getServer().getAllLevels()) {
+            if (!level.hasData(ToonFlattening.PENDING_FLATTEN_SYNC.get())) {
+                continue;
+            }
+
+            PendingFlattenSync pending = level.getData(ToonFlattening.PENDING_FLATTEN_SYNC.get());
+            if (pending.isEmpty()) {
+                continue;
+            }
+
+            if (pending.hasChanges()) {
+                flush(pending);
+            }
+            if (checkStale && pending.hasStaleViewers()) {
+                catchUpStaleViewers(pending);
+            }
+            pending.clear();
+        }
+    }
+
+    private static void flush(PendingFlattenSync pending) {
+        Reference2ObjectLinkedOpenHashMap<ServerPlayer, Batch> batches = new Reference2ObjectLinkedOpenHashMap<>();
+
+        for (ServerPlayer player : pending.dirty()) {
+            if (player.isRemoved()) {
+                continue;
+            }
+
+            FlattenedStateAttachment state = player.getData(ToonFlattening.FLATTENED_STATE.get());
+            FlattenStateEntry entry = FlattenStateEntry.of(player.getId(), state, pending.isFullSync(player));
+            FlattenStateEntry fullEntry = null;
+            boolean squash = pending.isSquashed(player);
+
+            addTo(batches, player, entry, squash);
+
+            FlattenViewers viewers = player.getData(ToonFlattening.FLATTEN_VIEWERS.get());
+            for (ServerPlayer viewer : viewers.trackers()) {
+                if (!FlattenViewers.inSyncRadius(viewer, player)) {
+                    viewers.markStale(viewer);
+                    pending.markStaleViewers(player);
+                    continue;
+                }
+
+                if (viewers.clearStale(viewer)) {
+                    // Missed earlier updates, a delta would not apply
+                    if (fullEntry == null) {
+                        fullEntry = FlattenStateEntry.of(player.getId(), state, true);
+                    }
+                    addTo(batches, viewer, fullEntry, squash);
+                } else {
+                    addTo(batches, viewer, entry, squash);
+                }
+            }
+        }
+
+        for (Reference2IntMap.Entry<ServerPlayer> ack : pending.reformAcks().reference2IntEntrySet()) {
+            if (!ack.getKey().isRemoved()) {
+                batches.computeIfAbsent(ack.getKey(), r -> new Batch()).ackSequence = ack.getIntValue();
+            }
+        }
+
+        batches.forEach((recipient, batch) ->
+            PacketDistributor.sendToPlayer(recipient, new SyncFlattenBatchPayload(batch.states, batch.squashPlayerIds, batch.ackSequence))
         );
     }
+
+    private static void catchUpStaleViewers(PendingFlattenSync pending) {
+        Iterator<ServerPlayer> targets = pending.staleViewersIterator();
+        while (targets.hasNext()) {
+            ServerPlayer target = targets.next();
+            if (target.isRemoved()) {
+                targets.remove();
+                continue;
+            }
+
+            FlattenViewers viewers = target.getData(ToonFlattening.FLATTEN_VIEWERS.get());
+            Iterator<ServerPlayer> stale = viewers.staleIterator();
+            while (stale.hasNext()) {
+                ServerPlayer viewer = stale.next();
+                if (FlattenViewers.inSyncRadius(viewer, target)) {
+                    sendFull(viewer, target);
+                    stale.remove();
+                }
+            }
+
+            if (!viewers.hasStale()) {
+                targets.remove();
+            }
+        }
+    }
+
+    private static void addTo(Reference2ObjectLinkedOpenHashMap<ServerPlayer, Batch> batches, ServerPlayer recipient, FlattenStateEntry entry, boolean squash) {
+        Batch batch = batches.computeIfAbsent(recipient, r -> new Batch());
+        batch.states.add(entry);
+        if (squash) {
+            batch.squashPlayerIds.add(entry.playerId());
+        }
+    }
+
+    private static class Batch {
+        private final List<FlattenStateEntry> states = new ArrayList<>();
+        private final List<Integer> squashPlayerIds = new ArrayList<>();
+        private int ackSequence = SyncFlattenBatchPayload.NO_ACK;
+    }
 }
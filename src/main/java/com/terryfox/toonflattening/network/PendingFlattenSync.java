@@ -0,0 +1,94 @@
+package com.terryfox.toonflattening.network;
+
+import it.unimi.dsi.fastutil.objects.Reference2IntOpenHashMap;
+import it.unimi.dsi.fastutil.objects.ReferenceLinkedOpenHashSet;
+import it.unimi.dsi.fastutil.objects.ReferenceOpenHashSet;
+import net.minecraft.server.level.ServerPlayer;
+
+import java.util.Iterator;
+
+/**
+ * Per-level set of players whose flattened state changed this tick, flushed by NetworkHandler at end of server tick.
+ * Also remembers which players have stale viewers waiting to come back into the sync radius.
+ */
+public class PendingFlattenSync {
+    private final ReferenceLinkedOpenHashSet<ServerPlayer> dirty = new ReferenceLinkedOpenHashSet<>();
+    private final ReferenceOpenHashSet<ServerPlayer> squash = new ReferenceOpenHashSet<>();
+    private final ReferenceOpenHashSet<ServerPlayer> fullSync = new ReferenceOpenHashSet<>();
+    private final ReferenceOpenHashSet<ServerPlayer> withStaleViewers = new ReferenceOpenHashSet<>();
+    private final Reference2IntOpenHashMap<ServerPlayer> reformAcks = new Reference2IntOpenHashMap<>();
+
+    public void markDirty(ServerPlayer player) {
+        dirty.add(player);
+    }
+
+    /**
+     * The player's state changed beyond what a delta can describe (first flatten, login), so send it in full.
+     */
+    public void markFullSync(ServerPlayer player) {
+        dirty.add(player);
+        fullSync.add(player);
+    }
+
+    public void markSquash(ServerPlayer player) {
+        dirty.add(player);
+        squash.add(player);
+    }
+
+    /**
+     * Records the latest reform request sequence to acknowledge to the player this tick.
+     */
+    public void ackReform(ServerPlayer player, int sequence) {
+        reformAcks.put(player, sequence);
+    }
+
+    public Reference2IntOpenHashMap<ServerPlayer> reformAcks() {
+        return reformAcks;
+    }
+
+    public boolean hasChanges() {
+        return !dirty.isEmpty() || !reformAcks.isEmpty();
+    }
+
+    public boolean isEmpty() {
+        return !hasChanges() && withStaleViewers.isEmpty();
+    }
+
+    public Iterable<ServerPlayer> dirty() {
+        return dirty;
+    }
+
+    public boolean isSquashed(ServerPlayer player) {
+        return squash.contains(player);
+    }
+
+    public boolean isFullSync(ServerPlayer player) {
+        return fullSync.contains(player);
+    }
+
+    /**
+     * Remembers that the player has viewers outside the sync radius that missed an update.
+     * Kept across flushes until those viewers are caught up or stop tracking.
+     */
+    public void markStaleViewers(ServerPlayer player) {
+        withStaleViewers.add(player);
+    }
+
+    public boolean hasStaleViewers() {
+        return !withStaleViewers.isEmpty();
+    }
+
+    public Iterator<ServerPlayer> staleViewersIterator() {
+        return withStaleViewers.iterator();
+    }
+
+    /**
+     * Clears this tick's changes; players with stale viewers are kept.
+     */
+    public void clear() {
+        dirty.clear();
+        squash.clear();
+        fullSync.clear();
+        reformAcks.clear();
+    }
+}
@@ -1,18 +1,37 @@
 package com.terryfox.toonflattening.network;
 
 import com.terryfox.toonflattening.core.FlatteningStateController;
+import net.minecraft.Util;
 import net.minecraft.server.level.ServerPlayer;
 import net.neoforged.neoforge.network.handling.IPayloadContext;
 
 public class ReformHandler {
+    /**
+     * Minimum time between reform requests handled for one player. Clients only send once they
+     * predict the reform will succeed, but one that re-sends faster than this (e.g. after its ack
+     * timeout, or a modified one) must not queue a tryReform per click. Dropped requests queue no
+     * work: the latest dropped sequence is kept on the player and acked with the end-of-tick batch,
+     * so the client rolls back instead of keeping a reform the server never made.
+     */
+    private static final long MIN_REQUEST_INTERVAL_MILLIS = 250;
+
     public static void handleRequestReform(RequestReformPayload payload, IPayloadContext context) {
-        context.enqueueWork(() -> {
-            var player = context.player();
-            if (!(player instanceof ServerPlayer serverPlayer)) {
-                return;
-            }
+        // Runs on the network thread; debounce before queueing any main-thread work
+        if (!(context.player() instanceof ServerPlayer serverPlayer)) {
+            return;
+        }
+
+        ReformRequestThrottle throttle = (ReformRequestThrottle) serverPlayer;
+        if (!throttle.toonflattening$tryAcceptReformRequest(Util.getMillis(), MIN_REQUEST_INTERVAL_MILLIS)) {
+            throttle.toonflattening$recordDroppedReformRequest(payload.sequence());
+            return;
+        }
 
+        context.enqueueWork(() -> {
             FlatteningStateController.tryReform(serverPlayer);
+
+            // Any resulting state change goes out in the same batch as the ack
+            NetworkHandler.ackReform(serverPlayer, payload.sequence());
         });
     }
 }
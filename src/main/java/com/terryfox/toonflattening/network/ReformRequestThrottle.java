@@ -0,0 +1,24 @@
+package com.terryfox.toonflattening.network;
+
+/**
+ * Duck interface mixed into ServerPlayer holding the time of the last accepted reform request,
+ * so requests can be debounced on the network thread before any main-thread work is queued.
+ * Also holds the latest dropped request's sequence until the end-of-tick batch acks it.
+ */
+public interface ReformRequestThrottle {
+    /**
+     * @return true if a request at nowMillis is at least minIntervalMillis after the last accepted one (and records it)
+     */
+    boolean toonflattening$tryAcceptReformRequest(long nowMillis, long minIntervalMillis);
+
+    /**
+     * Remembers a request the debounce dropped; it replaces any earlier one still waiting for its ack.
+     * Called from the network thread.
+     */
+    void toonflattening$recordDroppedReformRequest(int sequence);
+
+    /**
+     * @return the latest dropped request's sequence and forgets it, or SyncFlattenBatchPayload.NO_ACK if none
+     */
+    int toonflattening$takeDroppedReformRequest();
+}
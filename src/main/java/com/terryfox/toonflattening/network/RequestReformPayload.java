@@ -2,16 +2,25 @@ package com.terryfox.toonflattening.network;
 
 import com.terryfox.toonflattening.ToonFlattening;
 import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
 import net.minecraft.network.codec.StreamCodec;
 import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
 import net.minecraft.resources.ResourceLocation;
 
-public record RequestReformPayload() implements CustomPacketPayload {
+/**
+ * @param sequence client-chosen id, echoed back in SyncFlattenBatchPayload.ackSequence so the
+ *                 client can reconcile a predicted reform
+ */
+public record RequestReformPayload(int sequence) implements CustomPacketPayload {
     public static final Type<RequestReformPayload> TYPE =
         new Type<>(ResourceLocation.fromNamespaceAndPath(ToonFlattening.MODID, "request_reform"));
 
     public static final StreamCodec<FriendlyByteBuf, RequestReformPayload> CODEC =
-        StreamCodec.unit(new RequestReformPayload());
+        StreamCodec.composite(
+            ByteBufCodecs.VAR_INT,
+            RequestReformPayload::sequence,
+            RequestReformPayload::new
+        );
 
     @Override
     public Type<? extends CustomPacketPayload> type() {
@@ -0,0 +1,28 @@
+package com.terryfox.toonflattening.network;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+
+/**
+ * Sent by a client that received a delta for a player it has no base state for.
+ */
+public record RequestResyncPayload(int playerId) implements CustomPacketPayload {
+    public static final Type<RequestResyncPayload> TYPE =
+        new Type<>(ResourceLocation.fromNamespaceAndPath(ToonFlattening.MODID, "request_resync"));
+
+    public static final StreamCodec<FriendlyByteBuf, RequestResyncPayload> CODEC =
+        StreamCodec.composite(
+            ByteBufCodecs.VAR_INT,
+            RequestResyncPayload::playerId,
+            RequestResyncPayload::new
+        );
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+}
@@ -0,0 +1,34 @@
+package com.terryfox.toonflattening.network;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.integration.ScaleBackends;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+/**
+ * Sent on login: which scale backend the server uses, so the client's hitbox and rendering match it.
+ */
+public record ScaleBackendPayload(boolean nativeScaling) implements CustomPacketPayload {
+    public static final Type<ScaleBackendPayload> TYPE =
+        new Type<>(ResourceLocation.fromNamespaceAndPath(ToonFlattening.MODID, "scale_backend"));
+
+    public static final StreamCodec<FriendlyByteBuf, ScaleBackendPayload> CODEC =
+        StreamCodec.composite(
+            ByteBufCodecs.BOOL,
+            ScaleBackendPayload::nativeScaling,
+            ScaleBackendPayload::new
+        );
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public static void handle(ScaleBackendPayload payload, IPayloadContext context) {
+        context.enqueueWork(() -> ScaleBackends.useServerChoice(payload.nativeScaling()));
+    }
+}
@@ -0,0 +1,75 @@
+package com.terryfox.toonflattening.network;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.client.FrozenPoseCache;
+import com.terryfox.toonflattening.client.PendingEntityUpdates;
+import com.terryfox.toonflattening.client.ReformPrediction;
+import com.terryfox.toonflattening.client.SquashAnimationRenderer;
+import net.minecraft.client.Minecraft;
+import net.minecraft.network.FriendlyByteBuf;
+import net.minecraft.network.codec.ByteBufCodecs;
+import net.minecraft.network.codec.StreamCodec;
+import net.minecraft.network.protocol.common.custom.CustomPacketPayload;
+import net.minecraft.resources.ResourceLocation;
+import net.neoforged.neoforge.network.handling.IPayloadContext;
+
+import java.util.List;
+
+/**
+ * All flattened-state changes one client can see from a single server tick, plus the squash
+ * animations to trigger. Applied in one go so every change lands in the same frame.
+ * ackSequence confirms the recipient's latest reform request handled this tick (NO_ACK if none).
+ */
+public record SyncFlattenBatchPayload(List<FlattenStateEntry> states, List<Integer> squashPlayerIds, int ackSequence) implements CustomPacketPayload {
+    public static final int NO_ACK = 0;
+
+    public static final Type<SyncFlattenBatchPayload> TYPE =
+        new Type<>(ResourceLocation.fromNamespaceAndPath(ToonFlattening.MODID, "sync_flatten_batch"));
+
+    public static final StreamCodec<FriendlyByteBuf, SyncFlattenBatchPayload> CODEC =
+        StreamCodec.composite(
+            FlattenStateEntry.CODEC.apply(ByteBufCodecs.list()),
+            SyncFlattenBatchPayload::states,
+            ByteBufCodecs.VAR_INT.apply(ByteBufCodecs.list()),
+            SyncFlattenBatchPayload::squashPlayerIds,
+            ByteBufCodecs.VAR_INT,
+            SyncFlattenBatchPayload::ackSequence,
+            SyncFlattenBatchPayload::new
+        );
+
+    @Override
+    public Type<? extends CustomPacketPayload> type() {
+        return TYPE;
+    }
+
+    public static void handle(SyncFlattenBatchPayload payload, IPayloadContext context) {
+        context.enqueueWork(() -> {
+            var level = Minecraft.getInstance().level;
+            if (level == null) {
+                return;
+            }
+
+            for (FlattenStateEntry entry : payload.states()) {
+                // While a reform is predicted, the local player's updates go to the server-state shadow
+                if (ReformPrediction.intercept(entry)) {
+                    continue;
+                }
+                if (entry.apply(level)) {
+                    FrozenPoseCache.onEntryApplied(entry, level);
+                } else {
+                    // Entity not spawned on this client yet; applied when it joins
+                    PendingEntityUpdates.buffer(entry, level.getGameTime());
+                }
+            }
+
+            // After the states, so the effect sees the player already flattened
+            for (int playerId : payload.squashPlayerIds()) {
+                SquashAnimationRenderer.playSquashEffect(playerId);
+            }
+
+            if (payload.ackSequence() != NO_ACK) {
+                ReformPrediction.onAck(payload.ackSequence());
+            }
+        });
+    }
+}
@@ -0,0 +1,117 @@
+package com.terryfox.toonflattening.trace;
+
+import com.terryfox.toonflattening.ToonFlattening;
+import com.terryfox.toonflattening.core.MinecartApproachEvaluator;
+import net.neoforged.fml.loading.FMLPaths;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * Opt-in recorder for minecart approach decisions. Each decision's inputs, intermediate dot
+ * products and verdict are written into a fixed-size ring buffer and only hit the disk on dump().
+ * Replaces per-decision INFO logging on the collision hot path.
+ *
+ * Server thread only.
+ */
+public final class MinecartDecisionTrace {
+    public static final int DEFAULT_CAPACITY = 65_536;
+
+    private static final DateTimeFormatter FILE_TIME = DateTimeFormatter.ofPattern("yyyyMMdd-HHmmss");
+
+    private static volatile boolean enabled;
+    private static ByteBuffer ring;
+    private static int capacity;
+    private static long recorded;
+
+    private MinecartDecisionTrace() {
+    }
+
+    public static boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Starts recording into a fresh ring buffer holding the last {@code newCapacity} decisions.
+     */
+    public static void start(int newCapacity) {
+        ring = ByteBuffer.allocate(newCapacity * MinecartTraceFormat.RECORD_BYTES);
+        capacity = newCapacity;
+        recorded = 0;
+        enabled = true;
+    }
+
+    /**
+     * Stops recording; the buffer is kept so it can still be dumped.
+     */
+    public static void stop() {
+        enabled = false;
+    }
+
+    /**
+     * Number of decisions currently held in the ring buffer.
+     */
+    public static int size() {
+        return (int) Math.min(recorded, capacity);
+    }
+
+    public static void record(long gameTime, int cartId, int playerId,
+                              double cartX, double cartZ, double cartVelX, double cartVelY, double cartVelZ,
+                              double playerX, double playerZ, double playerVelX, double playerVelZ,
+                              MinecartApproachEvaluator evaluator, byte verdict) {
+        ByteBuffer buffer = ring;
+        buffer.position((int) (recorded % capacity) * MinecartTraceFormat.RECORD_BYTES);
+        buffer.putLong(gameTime)
+            .putInt(cartId)
+            .putInt(playerId)
+            .putDouble(cartX)
+            .putDouble(cartZ)
+            .putDouble(cartVelX)
+            .putDouble(cartVelY)
+            .putDouble(cartVelZ)
+            .putDouble(playerX)
+            .putDouble(playerZ)
+            .putDouble(playerVelX)
+            .putDouble(playerVelZ)
+            .putFloat((float) evaluator.dirDot())
+            .putFloat((float) evaluator.relativeSpeed())
+            .putFloat((float) evaluator.impactDot())
+            .put(verdict);
+        recorded++;
+    }
+
+    /**
+     * Writes the buffered decisions, oldest first, to game_dir/toonflattening/traces.
+     * @return the written file
+     */
+    public static Path dump() throws IOException {
+        if (ring == null) {
+            throw new IOException("No minecart trace has been recorded");
+        }
+
+        int count = size();
+        int first = recorded > capacity ? (int) (recorded % capacity) : 0;
+
+        ByteBuffer out = ByteBuffer.allocate(MinecartTraceFormat.HEADER_BYTES + count * MinecartTraceFormat.RECORD_BYTES);
+        out.putInt(MinecartTraceFormat.MAGIC)
+            .putShort(MinecartTraceFormat.VERSION)
+            .putInt(count);
+
+        byte[] source = ring.array();
+        int firstChunk = count - first;
+        out.put(source, first * MinecartTraceFormat.RECORD_BYTES, firstChunk * MinecartTraceFormat.RECORD_BYTES);
+        out.put(source, 0, first * MinecartTraceFormat.RECORD_BYTES);
+
+        Path directory = FMLPaths.GAMEDIR.get().resolve(ToonFlattening.MODID).resolve("traces");
+        Files.createDirectories(directory);
+        Path file = directory.resolve("minecart-" + LocalDateTime.now().format(FILE_TIME) + ".bin");
+        Files.write(file, out.array());
+
+        ToonFlattening.LOGGER.info("Dumped {} minecart decisions to {}", count, file);
+        return file;
+    }
+}
@@ -0,0 +1,81 @@
+package com.terryfox.toonflattening.trace;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Binary layout of minecart decision traces, shared by the in-game recorder and the offline replay tool.
+ * Must not reference Minecraft classes so the replay tool can run standalone.
+ *
+ * File: int magic, short version, int record count, then records oldest first.
+ * Record: long gameTime, int cartId, int playerId,
+ *         double cartX, cartZ, velX, velY, velZ, playerX, playerZ, playerVelX, playerVelZ,
+ *         float dirDot, relativeSpeed, impactDot, byte verdict.
+ */
+public final class MinecartTraceFormat {
+    public static final int MAGIC = 0x54465452; // "TFTR"
+    public static final short VERSION = 1;
+    public static final int HEADER_BYTES = Integer.BYTES + Short.BYTES + Integer.BYTES;
+    public static final int RECORD_BYTES = Long.BYTES + 2 * Integer.BYTES + 9 * Double.BYTES + 3 * Float.BYTES + 1;
+
+    private MinecartTraceFormat() {
+    }
+
+    public record Decision(
+        long gameTime,
+        int cartId,
+        int playerId,
+        double cartX,
+        double cartZ,
+        double velX,
+        double velY,
+        double velZ,
+        double playerX,
+        double playerZ,
+        double playerVelX,
+        double playerVelZ,
+        float dirDot,
+        float relativeSpeed,
+        float impactDot,
+        byte verdict
+    ) {
+        static Decision read(ByteBuffer buffer) {
+            return new Decision(
+                buffer.getLong(), buffer.getInt(), buffer.getInt(),
+                buffer.getDouble(), buffer.getDouble(),
+                buffer.getDouble(), buffer.getDouble(), buffer.getDouble(),
+                buffer.getDouble(), buffer.getDouble(),
+                buffer.getDouble(), buffer.getDouble(),
+                buffer.getFloat(), buffer.getFloat(), buffer.getFloat(),
+                buffer.get()
+            );
+        }
+    }
+
+    public static List<Decision> read(Path path) throws IOException {
+        ByteBuffer buffer = ByteBuffer.wrap(Files.readAllBytes(path));
+        if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+            throw new IOException("Not a minecart decision trace: " + path);
+        }
+
+        short version = buffer.getShort();
+        if (version != VERSION) {
+            throw new IOException("Unsupported trace version " + version + " in " + path);
+        }
+
+        int count = buffer.getInt();
+        if (buffer.remaining() < (long) count * RECORD_BYTES) {
+            throw new IOException("Truncated trace: expected " + count + " records in " + path);
+        }
+
+        List<Decision> decisions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            decisions.add(Decision.read(buffer));
+        }
+        return decisions;
+    }
+}
@@ -0,0 +1,112 @@
+package com.terryfox.toonflattening.trace;
+
+import com.terryfox.toonflattening.core.MinecartApproachEvaluator;
+import com.terryfox.toonflattening.core.MinecartApproachEvaluator.Thresholds;
+import com.terryfox.toonflattening.trace.MinecartTraceFormat.Decision;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.List;
+
+/**
+ * Standalone tool that feeds a recorded minecart trace back through MinecartApproachEvaluator.
+ * Reports every decision whose verdict changes under the given thresholds and can benchmark the math.
+ * Exits with status 1 when any verdict differs, so it can gate threshold tuning.
+ *
+ * Usage: MinecartTraceReplay <trace.bin> [velocityThreshold directionThreshold triggerRadius] [benchIterations]
+ */
+public final class MinecartTraceReplay {
+    private static final int MAX_REPORTED_CHANGES = 20;
+
+    private MinecartTraceReplay() {
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1 && args.length != 4 && args.length != 5) {
+            System.err.println("Usage: MinecartTraceReplay <trace.bin> [velocityThreshold directionThreshold triggerRadius] [benchIterations]");
+            System.exit(2);
+        }
+
+        List<Decision> decisions = MinecartTraceFormat.read(Path.of(args[0]));
+        Thresholds thresholds = args.length >= 4
+            ? new Thresholds(Double.parseDouble(args[1]), Double.parseDouble(args[2]), Double.parseDouble(args[3]))
+            : Thresholds.DEFAULT;
+        int benchIterations = args.length == 5 ? Integer.parseInt(args[4]) : 0;
+
+        MinecartApproachEvaluator evaluator = new MinecartApproachEvaluator(thresholds);
+        System.out.printf("Replaying %d decisions with %s%n", decisions.size(), thresholds);
+
+        int changed = 0;
+        int approachGained = 0;
+        int approachLost = 0;
+        int impactGained = 0;
+        int impactLost = 0;
+
+        for (Decision decision : decisions) {
+            byte verdict = evaluate(evaluator, decision);
+            if (verdict == decision.verdict()) {
+                continue;
+            }
+
+            changed++;
+            int gained = verdict & ~decision.verdict();
+            int lost = decision.verdict() & ~verdict;
+            if ((gained & MinecartApproachEvaluator.APPROACHING) != 0) approachGained++;
+            if ((lost & MinecartApproachEvaluator.APPROACHING) != 0) approachLost++;
+            if ((gained & MinecartApproachEvaluator.IMPACT) != 0) impactGained++;
+            if ((lost & MinecartApproachEvaluator.IMPACT) != 0) impactLost++;
+
+            if (changed <= MAX_REPORTED_CHANGES) {
+                System.out.printf("  tick %d cart %d player %d: verdict %d -> %d (dirDot %.4f, rel %.4f, dot %.4f)%n",
+                    decision.gameTime(), decision.cartId(), decision.playerId(), decision.verdict(), verdict,
+                    evaluator.dirDot(), evaluator.relativeSpeed(), evaluator.impactDot());
+            }
+        }
+
+        System.out.printf("Changed verdicts: %d (approach +%d/-%d, impact +%d/-%d)%n",
+            changed, approachGained, approachLost, impactGained, impactLost);
+
+        if (benchIterations > 0) {
+            benchmark(evaluator, decisions, benchIterations);
+        }
+
+        if (changed > 0) {
+            System.exit(1);
+        }
+    }
+
+    private static byte evaluate(MinecartApproachEvaluator evaluator, Decision decision) {
+        return evaluator.evaluate(
+            decision.cartX(), decision.cartZ(),
+            decision.velX(), decision.velY(), decision.velZ(),
+            decision.playerX(), decision.playerZ(),
+            decision.playerVelX(), decision.playerVelZ()
+        );
+    }
+
+    private static void benchmark(MinecartApproachEvaluator evaluator, List<Decision> decisions, int iterations) {
+        if (decisions.isEmpty()) {
+            return;
+        }
+
+        // Warm up so the timed loop measures compiled code
+        int sink = 0;
+        for (int i = 0; i < Math.max(1, iterations / 10); i++) {
+            for (Decision decision : decisions) {
+                sink += evaluate(evaluator, decision);
+            }
+        }
+
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            for (Decision decision : decisions) {
+                sink += evaluate(evaluator, decision);
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        double perDecision = (double) elapsed / ((long) iterations * decisions.size());
+        System.out.printf("Benchmark: %d x %d decisions, %.2f ns/decision (checksum %d)%n",
+            iterations, decisions.size(), perDecision, sink);
+    }
+}
@@ -0,0 +1,118 @@
+package com.terryfox.toonflattening.core;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MinecartSweepTest {
+    private static final double EPSILON = 1.0E-9;
+
+    @Test
+    void closestApproachBeforeTheSegmentIsTheStart() {
+        // Player behind the cart: the closest point is where the cart starts
+        assertEquals(4.0, MinecartSweep.closestApproachSqr(0, 0, 1, 0, -2, 0), EPSILON);
+    }
+
+    @Test
+    void closestApproachPastTheSegmentIsTheEnd() {
+        assertEquals(1.0, MinecartSweep.closestApproachSqr(0, 0, 1, 0, 2, 0), EPSILON);
+    }
+
+    @Test
+    void closestApproachAlongTheSegmentIsPerpendicular() {
+        assertEquals(0.09, MinecartSweep.closestApproachSqr(0, 0, 2, 0, 1, 0.3), EPSILON);
+        // Diagonal motion: the player sits 0.25 off the line through (1, 1)
+        double offset = 0.25 / Math.sqrt(2);
+        assertEquals(0.0625, MinecartSweep.closestApproachSqr(0, 0, 2, 2, 1 + offset, 1 - offset), EPSILON);
+    }
+
+    @Test
+    void stationaryCartMeasuresFromItsPosition() {
+        assertEquals(2.0, MinecartSweep.closestApproachSqr(5, 5, 0, 0, 6, 6), EPSILON);
+    }
+
+    @Test
+    void fastCartCannotTunnelPastAPlayer() {
+        // 3 blocks per tick: the player at x=1.5 is 1.5 from both the start and the end position,
+        // well outside the trigger radius, but the cart passes straight through them
+        double startDistSqr = 1.5 * 1.5;
+        double radiusSqr = MinecartApproachEvaluator.TRIGGER_RADIUS * MinecartApproachEvaluator.TRIGGER_RADIUS;
+        assertTrue(startDistSqr > radiusSqr);
+        double swept = MinecartSweep.closestApproachSqr(0, 0, 3, 0, 1.5, 0.1);
+        assertEquals(0.01, swept, EPSILON);
+        assertTrue(MinecartSweep.isContact(3, 0, swept));
+    }
+
+    @Test
+    void contactNeedsSpeedAndDistance() {
+        double radius = MinecartApproachEvaluator.TRIGGER_RADIUS;
+        double speed = MinecartSweep.CONTACT_SPEED;
+        assertTrue(MinecartSweep.isContact(speed, 0, radius * radius));
+        assertFalse(MinecartSweep.isContact(speed, 0, radius * radius + 1.0E-6));
+        assertFalse(MinecartSweep.isContact(speed * 0.99, 0, 0));
+        // Speed is horizontal: diagonal components add up
+        assertTrue(MinecartSweep.isContact(speed * 0.8, speed * 0.6, 0));
+    }
+
+    @Test
+    void cellBordersBelongToTheHigherCell() {
+        double size = MinecartSweep.CELL_SIZE;
+        assertEquals(0, MinecartSweep.cellCoord(0));
+        assertEquals(0, MinecartSweep.cellCoord(size - 1.0E-9));
+        assertEquals(1, MinecartSweep.cellCoord(size));
+        assertEquals(-1, MinecartSweep.cellCoord(-1.0E-9));
+        assertEquals(-1, MinecartSweep.cellCoord(-size));
+        assertEquals(-2, MinecartSweep.cellCoord(-size - 1.0E-9));
+    }
+
+    @Test
+    void cellKeysAreDistinctAcrossSigns() {
+        assertNotEquals(MinecartSweep.cellKey(0, -1), MinecartSweep.cellKey(-1, 0));
+        assertNotEquals(MinecartSweep.cellKey(-1, -1), MinecartSweep.cellKey(0, 0));
+        assertNotEquals(MinecartSweep.cellKey(1, 0), MinecartSweep.cellKey(0, 1));
+        assertNotEquals(MinecartSweep.cellKey(-1, 0), MinecartSweep.cellKey(-1, -1));
+    }
+
+    @Test
+    void queriedCellsCoverEveryPlayerInRangeAtCellBorders() {
+        double size = MinecartSweep.CELL_SIZE;
+        double margin = MinecartSweep.QUERY_MARGIN;
+        double[][] carts = {
+            {size - 0.01, 0, 0.02, 0},      // crossing a border
+            {-0.01, -0.01, 2.5, -2.5},      // fast, diagonal, from just below zero
+            {2 * size, 3.5, -3.0, 0.0},     // fast, starting on a border
+            {-size, -size, 0.0, 0.0}        // stationary on a border corner
+        };
+        double[] offsets = {-margin, -margin + 1.0E-6, -1.0E-9, 0, 1.0E-9, margin - 1.0E-6, margin};
+
+        for (double[] cart : carts) {
+            double startX = cart[0];
+            double startZ = cart[1];
+            double velX = cart[2];
+            double velZ = cart[3];
+            int minCellX = MinecartSweep.cellCoord(Math.min(startX, startX + velX) - margin);
+            int maxCellX = MinecartSweep.cellCoord(Math.max(startX, startX + velX) + margin);
+            int minCellZ = MinecartSweep.cellCoord(Math.min(startZ, startZ + velZ) - margin);
+            int maxCellZ = MinecartSweep.cellCoord(Math.max(startZ, startZ + velZ) + margin);
+
+            for (double t = 0; t <= 1.0; t += 0.25) {
+                for (double offsetX : offsets) {
+                    for (double offsetZ : offsets) {
+                        double playerX = startX + velX * t + offsetX;
+                        double playerZ = startZ + velZ * t + offsetZ;
+                        if (MinecartSweep.closestApproachSqr(startX, startZ, velX, velZ, playerX, playerZ) > margin * margin) {
+                            continue;
+                        }
+                        int cellX = MinecartSweep.cellCoord(playerX);
+                        int cellZ = MinecartSweep.cellCoord(playerZ);
+                        assertTrue(cellX >= minCellX && cellX <= maxCellX && cellZ >= minCellZ && cellZ <= maxCellZ,
+                            "player at " + playerX + ", " + playerZ + " outside the queried cells");
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,49 @@
+package com.terryfox.toonflattening.network;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MovePacketThrottleTest {
+    @Test
+    void firstPacketIsAcceptedAtAnyClockValue() {
+        // Util.getMillis() is nanoTime-based and may be zero or negative
+        assertTrue(MovePacketThrottle.accepts(MovePacketThrottle.NONE, 0));
+        assertTrue(MovePacketThrottle.accepts(MovePacketThrottle.NONE, -5_000));
+        assertTrue(MovePacketThrottle.accepts(MovePacketThrottle.NONE, Long.MAX_VALUE));
+    }
+
+    @Test
+    void keepaliveIsAlwaysAccepted() {
+        long last = MovePacketThrottle.NONE;
+        long now = 12_345;
+        for (int i = 0; i < 100; i++) {
+            assertTrue(MovePacketThrottle.accepts(last, now), "keepalive " + i);
+            last = now;
+            now += MovePacketThrottle.KEEPALIVE_MILLIS;
+        }
+    }
+
+    @Test
+    void keepaliveSurvivesDroppedSpamInBetween() {
+        long last = MovePacketThrottle.NONE;
+        int accepted = 0;
+        // One packet per tick for 10 seconds: ten keepalive intervals
+        for (long now = 0; now < 10 * MovePacketThrottle.KEEPALIVE_MILLIS; now += 50) {
+            if (MovePacketThrottle.accepts(last, now)) {
+                last = now;
+                accepted++;
+            }
+        }
+        assertEquals(10 * MovePacketThrottle.KEEPALIVE_MILLIS / MovePacketThrottle.MIN_INTERVAL_MILLIS, accepted);
+    }
+
+    @Test
+    void packetsInsideTheIntervalAreDropped() {
+        assertFalse(MovePacketThrottle.accepts(1_000, 1_000));
+        assertFalse(MovePacketThrottle.accepts(1_000, 1_000 + MovePacketThrottle.MIN_INTERVAL_MILLIS - 1));
+        assertTrue(MovePacketThrottle.accepts(1_000, 1_000 + MovePacketThrottle.MIN_INTERVAL_MILLIS));
+    }
+}